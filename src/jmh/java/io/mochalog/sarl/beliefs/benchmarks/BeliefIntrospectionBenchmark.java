@@ -0,0 +1,103 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.BasicBeliefIntrospection;
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+
+import io.mochalog.bridge.prolog.query.QuerySolutionList;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput benchmarks of knowledge base access through
+ * the BasicBeliefIntrospection skill. Requires a local
+ * SWI-Prolog installation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BeliefIntrospectionBenchmark
+{
+    // Number of facts held in the knowledge base
+    @Param({"100", "10000"})
+    public int factCount;
+    
+    // Capacity of the query cache (0 disables caching)
+    @Param({"0", "256"})
+    public int cacheCapacity;
+    
+    // Knowledge base under benchmark
+    private BasicBeliefIntrospection beliefs;
+    // Query matching every held fact
+    private BeliefQuery allFactsQuery;
+    
+    // Argument varied between calls
+    private int counter;
+    
+    @Setup
+    public void setup()
+    {
+        beliefs = new BasicBeliefIntrospection(UUID.randomUUID());
+        if (cacheCapacity > 0)
+        {
+            beliefs.enableQueryCache(cacheCapacity);
+        }
+        
+        for (int i = 0; i < factCount; ++i)
+        {
+            beliefs.adoptLast("fact(@I)", i);
+        }
+        
+        allFactsQuery = new BeliefQuery("fact(X)");
+    }
+    
+    @Benchmark
+    public boolean adoptThenDrop()
+    {
+        beliefs.adoptLast("transient(@I)", counter);
+        return beliefs.drop("transient(@I)", counter++);
+    }
+    
+    @Benchmark
+    public boolean believes()
+    {
+        return beliefs.believes("fact(@I)", (counter++) % factCount);
+    }
+    
+    @Benchmark
+    public QuerySolutionList askAll()
+    {
+        return beliefs.askAll(allFactsQuery);
+    }
+}
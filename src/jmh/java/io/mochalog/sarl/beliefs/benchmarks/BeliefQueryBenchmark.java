@@ -0,0 +1,86 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of belief query construction, hashing
+ * and comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BeliefQueryBenchmark
+{
+    // Query shape asked throughout benchmarks
+    private static final String QUERY = "located(@A, @I, @I)";
+    
+    // Pre-constructed queries for hashing and comparison
+    private BeliefQuery query;
+    private BeliefQuery equalQuery;
+    
+    // Argument varied between constructions
+    private int counter;
+    
+    @Setup
+    public void setup()
+    {
+        query = new BeliefQuery(QUERY, "agent", 4, 2);
+        equalQuery = new BeliefQuery(QUERY, "agent", 4, 2);
+    }
+    
+    @Benchmark
+    public BeliefQuery constructFromString()
+    {
+        return new BeliefQuery(QUERY, "agent", 4, 2);
+    }
+    
+    @Benchmark
+    public BeliefQuery constructFromStringVaried()
+    {
+        return new BeliefQuery(QUERY, "agent", (counter++) & 63, 2);
+    }
+    
+    @Benchmark
+    public int hash()
+    {
+        return query.hashCode();
+    }
+    
+    @Benchmark
+    public boolean compare()
+    {
+        return query.equals(equalQuery);
+    }
+}
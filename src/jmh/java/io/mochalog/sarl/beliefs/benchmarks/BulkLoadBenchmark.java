@@ -0,0 +1,118 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.BasicBeliefIntrospection;
+import io.mochalog.sarl.beliefs.BulkLoadResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of loading a line-oriented fact file, comparing import
+ * of the file as Prolog source with bulk loading of the same file.
+ * Requires a local SWI-Prolog installation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkLoadBenchmark
+{
+    // Number of facts held in the file
+    @Param({"100000", "1000000"})
+    public int factCount;
+    
+    // Fact file loaded by each invocation
+    private Path factFile;
+    
+    // Knowledge base loaded into by each invocation
+    private BasicBeliefIntrospection beliefs;
+    
+    @Setup(Level.Trial)
+    public void writeFactFile() throws IOException
+    {
+        factFile = Files.createTempFile("facts", ".pl");
+        
+        // Facts of differing shapes, some holding quoted text
+        // and trailing comments
+        try (BufferedWriter writer = Files.newBufferedWriter(factFile, StandardCharsets.UTF_8))
+        {
+            for (int i = 0; i < factCount; ++i)
+            {
+                switch (i % 3)
+                {
+                    case 0:
+                        writer.write("edge(node_" + i + ", node_" + (i + 1) + ").");
+                        break;
+                    case 1:
+                        writer.write("label(node_" + i + ", 'Node #" + i + "', \"text\").");
+                        break;
+                    default:
+                        writer.write("weight(node_" + i + ", " + (i * 0.5) + "). % derived");
+                        break;
+                }
+                writer.newLine();
+            }
+        }
+    }
+    
+    @Setup(Level.Invocation)
+    public void createKnowledgeBase()
+    {
+        beliefs = new BasicBeliefIntrospection(UUID.randomUUID());
+    }
+    
+    @Benchmark
+    public boolean importFile()
+    {
+        return beliefs.loadKnowledgeBase(factFile.toString());
+    }
+    
+    @Benchmark
+    public BulkLoadResult bulkLoad()
+    {
+        return beliefs.bulkLoadKnowledgeBase(factFile.toString(), null);
+    }
+    
+    @TearDown(Level.Trial)
+    public void deleteFactFile() throws IOException
+    {
+        Files.deleteIfExists(factFile);
+    }
+}
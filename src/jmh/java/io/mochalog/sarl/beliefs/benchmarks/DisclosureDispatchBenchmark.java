@@ -0,0 +1,89 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.AbstractDisclosureListener;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+
+import io.sarl.lang.core.Event;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of event dispatch through disclosure listeners.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DisclosureDispatchBenchmark
+{
+    // Listener under benchmark
+    private AbstractDisclosureListener listener;
+    
+    // Events to dispatch
+    private Event disclosure;
+    private Event query;
+    
+    // Sink of dispatched disclosures
+    private Blackhole sink;
+    
+    @Setup
+    public void setup(Blackhole blackhole)
+    {
+        sink = blackhole;
+        listener = new AbstractDisclosureListener()
+        {
+            @Override
+            public void onDisclosure(BeliefDisclosure disclosure)
+            {
+                sink.consume(disclosure);
+            }
+        };
+        
+        BeliefQuery beliefQuery = new BeliefQuery("fact(X)");
+        query = beliefQuery;
+        disclosure = new BeliefDisclosure(beliefQuery, null);
+    }
+    
+    @Benchmark
+    public void dispatchDisclosure()
+    {
+        listener.receiveEvent(disclosure);
+    }
+    
+    @Benchmark
+    public void dispatchOtherEvent()
+    {
+        listener.receiveEvent(query);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.analysis.DisclosureRouter;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the dispatch of a disclosure to the poll which
+ * issued its survey, amongst many concurrent polls in a space.
+ * Compares routing through the disclosure router of the space
+ * against delivery of the disclosure to every poll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DisclosureRoutingBenchmark
+{
+    // Number of polls conducted concurrently in the space
+    @Param({"1", "100", "1000"})
+    public int pollCount;
+    
+    // Polls conducted in the space
+    private List<SocialPollImpl> polls;
+    // Router of the space
+    private DisclosureRouter router;
+    // Disclosure upon the survey of the last poll
+    private BeliefDisclosure disclosure;
+    
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        // Single simulated participant, which answers only
+        // when the benchmark delivers its disclosure
+        InMemoryEventSpace space = new InMemoryEventSpace(1)
+        {
+            @Override
+            protected void answer(BeliefQuery query, BeliefDisclosure disclosure)
+            {
+            }
+        };
+        
+        polls = new ArrayList<SocialPollImpl>(pollCount);
+        for (int i = 0; i < pollCount; ++i)
+        {
+            polls.add(new SocialPollImpl.Executor()
+                .setSpace(space)
+                .addSurveys(new BeliefQuery("fact(" + i + ")"))
+                .setEvaluator((poll, response) -> {})
+                .execute());
+        }
+        
+        // Disclose upon the survey emitted by the last poll
+        router = DisclosureRouter.forSpace(space.getSpaceID());
+        BeliefQuery survey = polls.get(pollCount - 1).getActiveSurveys().iterator().next();
+        disclosure = new BeliefDisclosure(survey, null);
+        disclosure.setSource(space.getAddress(space.getParticipants().iterator().next()));
+    }
+    
+    @Benchmark
+    public void routeDisclosure()
+    {
+        router.receiveEvent(disclosure);
+    }
+    
+    @Benchmark
+    public void broadcastDisclosure()
+    {
+        for (SocialPollImpl poll : polls)
+        {
+            poll.receiveEvent(disclosure);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void teardown()
+    {
+        for (SocialPollImpl poll : polls)
+        {
+            poll.end();
+        }
+    }
+}
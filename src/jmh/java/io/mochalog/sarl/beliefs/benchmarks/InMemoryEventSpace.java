@@ -0,0 +1,238 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.query.BeliefQueryBatch;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosureBatch;
+
+import io.sarl.lang.core.Address;
+import io.sarl.lang.core.Event;
+import io.sarl.lang.core.EventListener;
+import io.sarl.lang.core.Scope;
+import io.sarl.lang.core.SpaceID;
+
+import io.sarl.lang.util.SynchronizedSet;
+
+import io.sarl.util.Collections3;
+import io.sarl.util.OpenEventSpace;
+import io.sarl.util.OpenEventSpaceSpecification;
+import io.sarl.util.Scopes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for an open event space, populated by
+ * simulated participants which synchronously answer every
+ * belief query and query batch they receive. Simulated participants believe
+ * nothing, disclosing no solutions to any query.
+ */
+public class InMemoryEventSpace implements OpenEventSpace
+{
+    // Identifier of the space
+    private final SpaceID spaceId;
+    
+    // Listeners registered in the space
+    private final Map<UUID, EventListener> listeners;
+    // Simulated participants answering belief queries
+    private final Set<UUID> responders;
+    // Addresses of all listeners and responders
+    private final Map<UUID, Address> addresses;
+    // Identifiers of all listeners and responders
+    private final Set<UUID> participants;
+    
+    /**
+     * Constructor.
+     * @param responderCount Number of simulated participants
+     */
+    public InMemoryEventSpace(int responderCount)
+    {
+        spaceId = new SpaceID(UUID.randomUUID(), UUID.randomUUID(), 
+            OpenEventSpaceSpecification.class);
+        
+        listeners = new ConcurrentHashMap<>();
+        responders = ConcurrentHashMap.newKeySet();
+        addresses = new ConcurrentHashMap<>();
+        participants = ConcurrentHashMap.newKeySet();
+        
+        for (int i = 0; i < responderCount; ++i)
+        {
+            UUID responder = UUID.randomUUID();
+            responders.add(responder);
+            join(responder);
+        }
+    }
+    
+    /**
+     * Add a participant to the space.
+     * @param id Participant identifier
+     * @return Participant address
+     */
+    private Address join(UUID id)
+    {
+        Address address = new Address(spaceId, id);
+        addresses.put(id, address);
+        participants.add(id);
+        return address;
+    }
+    
+    /**
+     * Remove a participant from the space.
+     * @param id Participant identifier
+     * @return Former participant address
+     */
+    private Address leave(UUID id)
+    {
+        participants.remove(id);
+        return addresses.remove(id);
+    }
+    
+    @Override
+    public Address register(EventListener entity)
+    {
+        listeners.put(entity.getID(), entity);
+        return join(entity.getID());
+    }
+    
+    @Override
+    public Address unregister(EventListener entity)
+    {
+        listeners.remove(entity.getID());
+        return leave(entity.getID());
+    }
+    
+    @Override
+    public Address getAddress(UUID id)
+    {
+        return addresses.get(id);
+    }
+    
+    public void emit(Event event)
+    {
+        emit(event, Scopes.<Address>allParticipants());
+    }
+    
+    @Override
+    public void emit(Event event, Scope<Address> scope)
+    {
+        final Scope<Address> receivers = scope == null ? Scopes.<Address>allParticipants() : scope;
+        
+        for (EventListener listener : listeners.values())
+        {
+            Address address = addresses.get(listener.getID());
+            if (address != null && receivers.matches(address))
+            {
+                listener.receiveEvent(event);
+            }
+        }
+        
+        // Simulated participants answer belief queries
+        // directly to the query source
+        if (event instanceof BeliefQuery)
+        {
+            BeliefQuery query = (BeliefQuery) event;
+            for (UUID responder : responders)
+            {
+                Address address = addresses.get(responder);
+                if (receivers.matches(address))
+                {
+                    BeliefDisclosure disclosure = new BeliefDisclosure(query, null);
+                    disclosure.setSource(address);
+                    answer(query, disclosure);
+                }
+            }
+        }
+        // Query batches are answered with a single
+        // disclosure batch per participant
+        else if (event instanceof BeliefQueryBatch)
+        {
+            BeliefQueryBatch batch = (BeliefQueryBatch) event;
+            for (UUID responder : responders)
+            {
+                Address address = addresses.get(responder);
+                if (receivers.matches(address))
+                {
+                    List<BeliefDisclosure> disclosures = new ArrayList<>(batch.queries.size());
+                    for (BeliefQuery query : batch.queries)
+                    {
+                        BeliefDisclosure disclosure = new BeliefDisclosure(query, null);
+                        disclosure.setSource(address);
+                        disclosures.add(disclosure);
+                    }
+                    
+                    BeliefDisclosureBatch disclosureBatch = new BeliefDisclosureBatch(disclosures);
+                    disclosureBatch.setSource(address);
+                    answer(batch, disclosureBatch);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Deliver a simulated participant's answer to the source
+     * of the query.
+     * @param query Query answered
+     * @param disclosure Answer to query
+     */
+    protected void answer(BeliefQuery query, BeliefDisclosure disclosure)
+    {
+        EventListener source = listeners.get(query.getSource().getUUID());
+        if (source != null)
+        {
+            source.receiveEvent(disclosure);
+        }
+    }
+    
+    /**
+     * Deliver a simulated participant's answer to the source
+     * of the query batch.
+     * @param batch Query batch answered
+     * @param disclosureBatch Answers to queries of the batch
+     */
+    protected void answer(BeliefQueryBatch batch, BeliefDisclosureBatch disclosureBatch)
+    {
+        EventListener source = listeners.get(batch.getSource().getUUID());
+        if (source != null)
+        {
+            source.receiveEvent(disclosureBatch);
+        }
+    }
+    
+    @Override
+    public SpaceID getSpaceID()
+    {
+        return spaceId;
+    }
+    
+    public SpaceID getID()
+    {
+        return spaceId;
+    }
+    
+    @Override
+    public SynchronizedSet<UUID> getParticipants()
+    {
+        return Collections3.unmodifiableSynchronizedSet(
+            Collections3.synchronizedSet(participants, participants));
+    }
+}
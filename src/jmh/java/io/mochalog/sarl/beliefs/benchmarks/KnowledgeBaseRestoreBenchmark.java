@@ -0,0 +1,121 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.BasicBeliefIntrospection;
+import io.mochalog.sarl.beliefs.BulkLoadResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of agent knowledge base restoration on startup, comparing
+ * import of Prolog source, bulk loading of the same source and
+ * restoration of a binary snapshot.
+ * Requires a local SWI-Prolog installation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KnowledgeBaseRestoreBenchmark
+{
+    // Number of facts held in the knowledge base
+    @Param({"100000", "1000000"})
+    public int factCount;
+    
+    // Knowledge base as Prolog source and binary snapshot
+    private Path sourceFile;
+    private Path snapshotFile;
+    
+    // Knowledge base restored into by each invocation
+    private BasicBeliefIntrospection beliefs;
+    
+    @Setup(Level.Trial)
+    public void writeKnowledgeBase() throws IOException
+    {
+        sourceFile = Files.createTempFile("beliefs", ".pl");
+        snapshotFile = Files.createTempFile("beliefs", ".snapshot");
+        
+        try (BufferedWriter writer = Files.newBufferedWriter(sourceFile, StandardCharsets.UTF_8))
+        {
+            writer.write(":- dynamic fact/2.");
+            writer.newLine();
+            for (int i = 0; i < factCount; ++i)
+            {
+                writer.write("fact(" + i + ", value_" + i + ").");
+                writer.newLine();
+            }
+        }
+        
+        BasicBeliefIntrospection source = new BasicBeliefIntrospection(UUID.randomUUID());
+        source.loadKnowledgeBase(sourceFile.toString());
+        source.saveSnapshot(snapshotFile.toString());
+    }
+    
+    @Setup(Level.Invocation)
+    public void createKnowledgeBase()
+    {
+        beliefs = new BasicBeliefIntrospection(UUID.randomUUID());
+    }
+    
+    @Benchmark
+    public boolean importSource()
+    {
+        return beliefs.loadKnowledgeBase(sourceFile.toString());
+    }
+    
+    @Benchmark
+    public BulkLoadResult bulkLoadSource()
+    {
+        return beliefs.bulkLoadKnowledgeBase(sourceFile.toString(), null);
+    }
+    
+    @Benchmark
+    public boolean restoreSnapshot()
+    {
+        return beliefs.loadSnapshot(snapshotFile.toString());
+    }
+    
+    @TearDown(Level.Trial)
+    public void deleteKnowledgeBase() throws IOException
+    {
+        Files.deleteIfExists(sourceFile);
+        Files.deleteIfExists(snapshotFile);
+    }
+}
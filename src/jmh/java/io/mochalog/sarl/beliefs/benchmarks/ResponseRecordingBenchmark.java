@@ -0,0 +1,149 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.analysis.DisclosureRouter;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollBallot;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollImpl;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput benchmarks of disclosures delivered concurrently
+ * to a single poll ballot, as when many participants answer
+ * at once on separate delivery threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResponseRecordingBenchmark
+{
+    // Poll evaluator recording every response and checking for
+    // completion, without ever concluding the poll
+    private static final ExperimentEvaluator<SocialPollBallot> RECORDING_EVALUATOR = (poll, response) ->
+    {
+        poll.addPositiveResponse(response);
+        poll.getOutstandingResponderCount();
+    };
+    
+    // Number of participants responding to the poll
+    @Param({"1000", "100000"})
+    public int participantCount;
+    
+    // Space the poll is conducted in
+    private InMemoryEventSpace space;
+    // Poll receiving responses
+    private SocialPollImpl poll;
+    // Responses of every participant
+    private BeliefDisclosure[] responses;
+    
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        // Participants answer only when the benchmark
+        // delivers their responses
+        space = new InMemoryEventSpace(participantCount)
+        {
+            @Override
+            protected void answer(BeliefQuery query, BeliefDisclosure disclosure)
+            {
+            }
+        };
+        
+        poll = new SocialPollImpl.Executor()
+            .setSpace(space)
+            .addSurveys(new BeliefQuery("fact(X)"))
+            .setEvaluator(RECORDING_EVALUATOR)
+            .execute();
+        // Responses disclose upon the survey as emitted
+        BeliefQuery query = poll.getActiveSurveys().iterator().next();
+        
+        // Router of the space is the only participant
+        // other than those simulated
+        final UUID router = DisclosureRouter.forSpace(space.getSpaceID()).getID();
+        
+        responses = new BeliefDisclosure[participantCount];
+        int i = 0;
+        for (UUID participant : space.getParticipants())
+        {
+            if (i < participantCount && !participant.equals(router))
+            {
+                BeliefDisclosure response = new BeliefDisclosure(query, null);
+                response.setSource(space.getAddress(participant));
+                responses[i++] = response;
+            }
+        }
+    }
+    
+    /**
+     * Deliver the response of a random participant.
+     */
+    private void deliverResponse()
+    {
+        poll.receiveEvent(responses[ThreadLocalRandom.current().nextInt(responses.length)]);
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public void deliverSingleThreaded()
+    {
+        deliverResponse();
+    }
+    
+    @Benchmark
+    @Threads(16)
+    public void deliverFrom16Threads()
+    {
+        deliverResponse();
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public void deliverFrom32Threads()
+    {
+        deliverResponse();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void teardown()
+    {
+        poll.end();
+    }
+}
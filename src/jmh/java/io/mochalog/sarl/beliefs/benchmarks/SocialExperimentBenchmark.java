@@ -0,0 +1,123 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
+import io.mochalog.sarl.beliefs.social.analysis.contest.AgentContest;
+import io.mochalog.sarl.beliefs.social.analysis.contest.AgentContestBallot;
+import io.mochalog.sarl.beliefs.social.analysis.contest.AgentContestImpl;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPoll;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollBallot;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollImpl;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end latency benchmarks of social experiments, from
+ * execution to result, conducted in an in-memory space whose
+ * participants answer synchronously.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SocialExperimentBenchmark
+{
+    // Timeout capping experiments which fail to conclude
+    private static final long TIMEOUT = 10000;
+    
+    // Poll evaluator concluding once all participants agree
+    // that the query is not believed
+    private static final ExperimentEvaluator<SocialPollBallot> NONE_EVALUATOR = (poll, response) ->
+    {
+        if (response.isBelieved)
+        {
+            poll.finalisePollResult(false);
+        }
+        else
+        {
+            poll.addPositiveResponse(response);
+            if (poll.getOutstandingResponderCount() == 0)
+            {
+                poll.finalisePollResult(true);
+            }
+        }
+    };
+    
+    // Contest evaluator announcing once all participants
+    // have entered
+    private static final ExperimentEvaluator<AgentContestBallot> ENTRY_EVALUATOR = (contest, response) ->
+    {
+        contest.addPositiveResponse(response);
+        if (contest.getOutstandingResponderCount() == 0)
+        {
+            contest.announceContestResult(contest.getPositiveResponders());
+        }
+    };
+    
+    // Number of participants answering each experiment
+    @Param({"10", "100", "1000", "10000"})
+    public int participantCount;
+    
+    // Space experiments are conducted in
+    private InMemoryEventSpace space;
+    
+    @Setup
+    public void setup()
+    {
+        space = new InMemoryEventSpace(participantCount);
+    }
+    
+    @Benchmark
+    public SocialPoll isBelievedByNonePoll()
+    {
+        return new SocialPollImpl.Executor()
+            .setSpace(space)
+            .addSurveys(new BeliefQuery("fact(X)"))
+            .setEvaluator(NONE_EVALUATOR)
+            .endExperimentAfter(TIMEOUT)
+            .execute();
+    }
+    
+    @Benchmark
+    public AgentContest contest()
+    {
+        return new AgentContestImpl.Executor()
+            .setSpace(space)
+            .addSurveys(new BeliefQuery("fact(X)"))
+            .setEvaluator(ENTRY_EVALUATOR)
+            .setWinnerSelector(entrants -> new ArrayList<>(entrants))
+            .endExperimentAfter(TIMEOUT)
+            .execute();
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.util.SpaceResolutionCache;
+
+import io.sarl.lang.core.Address;
+import io.sarl.lang.core.Event;
+import io.sarl.lang.core.EventListener;
+import io.sarl.lang.core.EventSpace;
+import io.sarl.lang.core.SpaceID;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput benchmarks of the space and address resolution
+ * performed on answering each belief query, with and without
+ * caching the resolved spaces.
+ * <p>
+ * Contexts are stood in for by plain maps, whereas the Janus
+ * kernel resolves contexts and spaces through synchronised
+ * repositories, so the uncached figures are optimistic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpaceResolutionBenchmark
+{
+    // Number of spaces queries are received from
+    @Param({"1", "64"})
+    public int spaceCount;
+    
+    // Answering agent
+    private UUID answerer;
+    // Spaces, by identifier within their context,
+    // by context identifier
+    private Map<UUID, Map<UUID, EventSpace>> contexts;
+    // Sources of the queries answered
+    private Address[] querySources;
+    
+    // Cache of resolved spaces and addresses
+    private SpaceResolutionCache cache;
+    
+    // Index of the next query source
+    private int counter;
+    
+    @Setup
+    public void setup()
+    {
+        answerer = UUID.randomUUID();
+        contexts = new HashMap<>();
+        querySources = new Address[spaceCount];
+        
+        final EventListener listener = new EventListener()
+        {
+            @Override
+            public UUID getID()
+            {
+                return answerer;
+            }
+            
+            @Override
+            public void receiveEvent(Event event)
+            {
+            }
+        };
+        
+        for (int i = 0; i < spaceCount; ++i)
+        {
+            InMemoryEventSpace space = new InMemoryEventSpace(1);
+            space.register(listener);
+            
+            SpaceID spaceId = space.getSpaceID();
+            contexts.computeIfAbsent(spaceId.getContextID(), (id) -> new HashMap<>())
+                .put(spaceId.getID(), space);
+            querySources[i] = new Address(spaceId, UUID.randomUUID());
+        }
+        
+        cache = new SpaceResolutionCache();
+    }
+    
+    /**
+     * Resolve a space through its enclosing context.
+     * @param spaceId Space identifier
+     * @return Event space
+     */
+    private EventSpace resolve(SpaceID spaceId)
+    {
+        return contexts.get(spaceId.getContextID()).get(spaceId.getID());
+    }
+    
+    @Benchmark
+    public Address resolveUncached()
+    {
+        final SpaceID spaceId = querySources[counter++ % spaceCount].getSpaceId();
+        return resolve(spaceId).getAddress(answerer);
+    }
+    
+    @Benchmark
+    public Address resolveCached()
+    {
+        final SpaceID spaceId = querySources[counter++ % spaceCount].getSpaceId();
+        return cache.getAddress(cache.getSpace(spaceId, this::resolve), answerer);
+    }
+}
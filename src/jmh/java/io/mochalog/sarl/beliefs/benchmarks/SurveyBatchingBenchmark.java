@@ -0,0 +1,103 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.benchmarks;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPoll;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollBallot;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency benchmarks of polls asking several surveys of every
+ * participant, emitted either separately or as a single query
+ * batch. Participants of the in-memory space answer synchronously,
+ * such that all responses are recorded by the time the poll
+ * has been executed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SurveyBatchingBenchmark
+{
+    // Poll evaluator recording every response, never
+    // concluding of its own accord
+    private static final ExperimentEvaluator<SocialPollBallot> RECORDING_EVALUATOR = 
+        (poll, response) -> poll.addPositiveResponse(response);
+    
+    // Number of participants answering each poll
+    @Param({"10", "100", "1000"})
+    public int participantCount;
+    
+    // Number of surveys asked by each poll
+    @Param({"2", "8", "32"})
+    public int surveyCount;
+    
+    // Whether surveys are emitted as a single batch
+    @Param({"false", "true"})
+    public boolean batchSurveys;
+    
+    // Space polls are conducted in
+    private InMemoryEventSpace space;
+    
+    @Setup
+    public void setup()
+    {
+        space = new InMemoryEventSpace(participantCount);
+    }
+    
+    @Benchmark
+    public SocialPoll poll()
+    {
+        // Surveys are marked by the poll asking them,
+        // and so are created afresh for each poll
+        List<BeliefQuery> surveys = new ArrayList<>(surveyCount);
+        for (int i = 0; i < surveyCount; ++i)
+        {
+            surveys.add(new BeliefQuery("fact(" + i + ")"));
+        }
+        
+        SocialPoll poll = new SocialPollImpl.Executor()
+            .setSpace(space)
+            .addSurveys(surveys)
+            .setEvaluator(RECORDING_EVALUATOR)
+            .setSurveyBatching(batchSurveys)
+            .execute();
+        
+        poll.end();
+        return poll;
+    }
+}
@@ -16,10 +16,15 @@
 
 package io.mochalog.sarl.beliefs;
 
+import io.mochalog.sarl.beliefs.metrics.BeliefMetrics;
+import io.mochalog.sarl.beliefs.metrics.Timer;
 import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.trace.PollTracer;
+import io.mochalog.sarl.beliefs.util.MappedFactReader;
 
 import io.mochalog.bridge.prolog.PrologContext;
 import io.mochalog.bridge.prolog.SandboxedPrologContext;
+import io.mochalog.bridge.prolog.query.Query;
 import io.mochalog.bridge.prolog.query.QuerySolution;
 import io.mochalog.bridge.prolog.query.QuerySolutionList;
 
@@ -28,7 +33,24 @@ import io.sarl.lang.core.Skill;
 
 import java.io.IOException;
 
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+
+import java.nio.file.Paths;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure0;
 
 /**
  * Skill allowing for management of knowledge base constrained to single agent
@@ -37,6 +59,43 @@ public class BasicBeliefIntrospection extends Skill implements SelfBeliefs
 {
     // Interface to Prolog knowledge base
     private PrologContext knowledgeBase;
+    // Identifier of the knowledge base owner
+    private UUID owner;
+    // Name of the module holding the knowledge base
+    private String module;
+    // Cache of query solutions (null if caching disabled)
+    private volatile BeliefQueryCache queryCache;
+    
+    // Lock ensuring belief batches are applied one at a time
+    private final Object batchLock = new Object();
+    
+    // Predicate holding the status of each change of a
+    // batch which was not wholly applied
+    private static final String BATCH_STATUSES = "'$belief_batch_statuses'";
+    // Predicate holding the actions reverting each change
+    // of an atomic batch, most recent first
+    private static final String BATCH_UNDO = "'$belief_batch_undo'";
+    
+    // Number of facts adopted by each goal of a bulk load
+    private static final int BULK_LOAD_GOAL_SIZE = 4096;
+    // Predicate holding the facts of a bulk load goal
+    // which could not be adopted
+    private static final String BULK_LOAD_FAILED = "'$belief_bulk_load_failed'";
+    // Predicate holding the predicates replaced so far by
+    // a snapshot being restored
+    private static final String SNAPSHOT_RESTORED = "'$belief_snapshot_restored'";
+    
+    // Number of solution engines created, used to name
+    // each engine uniquely
+    private static final AtomicLong enginesCreated = new AtomicLong();
+    
+    // Names of the solution engines currently held open
+    private final Set<String> openEngines = ConcurrentHashMap.newKeySet();
+    // References to iterators drawing from solution engines,
+    // enqueued once an iterator is collected without being closed
+    private final ReferenceQueue<BeliefSolutionIterator> abandonedIterators = 
+        new ReferenceQueue<BeliefSolutionIterator>();
+    private final Set<EngineReference> engineReferences = ConcurrentHashMap.newKeySet();
 
     /**
      * Constructor.
@@ -66,7 +125,8 @@ public class BasicBeliefIntrospection extends Skill implements SelfBeliefs
     {
         // Ensure the module name is a valid Prolog
         // atom
-        String module = "agent_" + id.toString().replace('-', '_');
+        owner = id;
+        module = "agent_" + id.toString().replace('-', '_');
         knowledgeBase = new SandboxedPrologContext(module);
     }
 
@@ -75,7 +135,7 @@ public class BasicBeliefIntrospection extends Skill implements SelfBeliefs
     {
         try
         {
-            return knowledgeBase.importFile(path);
+            return invalidateOnChange(knowledgeBase.importFile(path));
         }
         catch (IOException e)
         {
@@ -83,6 +143,139 @@ public class BasicBeliefIntrospection extends Skill implements SelfBeliefs
         }
     }
     
+    @Override
+    public BulkLoadResult bulkLoadKnowledgeBase(String path, BulkLoadListener listener)
+    {
+        final long start = System.nanoTime();
+        // Facts read, facts adopted and bytes read so far
+        final long[] progress = new long[3];
+        
+        boolean completed = false;
+        try
+        {
+            // Facts are split out of the file in parallel, but
+            // parsed and adopted in file order, a chunk at a time
+            new MappedFactReader(Paths.get(path)).read(ForkJoinPool.commonPool(), 
+                ForkJoinPool.getCommonPoolParallelism() + 1, (facts, read, total) ->
+                {
+                    progress[0] += facts.size();
+                    progress[1] += adoptFacts(facts);
+                    progress[2] = read;
+                    
+                    if (listener != null)
+                    {
+                        listener.onProgress(read, total, progress[1]);
+                    }
+                });
+            completed = true;
+        }
+        catch (IOException e)
+        {
+            // Facts adopted prior to failure are retained,
+            // and reported in the result
+        }
+        
+        return new BulkLoadResult(progress[0], progress[1], progress[2], 
+            System.nanoTime() - start, completed);
+    }
+    
+    /**
+     * Adopt facts read by a bulk load, each after all matching
+     * beliefs. Facts are parsed and asserted by Prolog, with a single
+     * call to the knowledge base for each group of facts. The facts of
+     * a group which fail to be adopted are only counted given any
+     * such fact exists.
+     * @param facts Facts to adopt
+     * @return Number of facts adopted
+     */
+    private long adoptFacts(List<String> facts)
+    {
+        final String failed = module + ":" + BULK_LOAD_FAILED;
+        
+        long adopted = 0;
+        for (int from = 0; from < facts.size(); from += BULK_LOAD_GOAL_SIZE)
+        {
+            final List<String> group = facts.subList(from, 
+                Math.min(facts.size(), from + BULK_LOAD_GOAL_SIZE));
+            
+            final StringBuilder goal = new StringBuilder("forall(member(A, [");
+            for (int i = 0; i < group.size(); ++i)
+            {
+                if (i > 0)
+                {
+                    goal.append(", ");
+                }
+                goal.append(quote(group.get(i)));
+            }
+            goal.append("]), (catch((term_to_atom(F, A), assertz(" + module + ":F)), _, fail) -> ")
+                .append("true ; assertz(" + failed + "(A)))), \\+ " + failed + "(_)");
+            
+            adopted += group.size();
+            if (!timedProve(() -> knowledgeBase.prove(goal.toString())))
+            {
+                // Facts which could not be adopted are
+                // discarded as they are counted
+                for (QuerySolution solution : knowledgeBase.askForAllSolutions(
+                    "retract(" + failed + "(_))"))
+                {
+                    --adopted;
+                }
+            }
+        }
+        
+        invalidateOnChange(adopted > 0);
+        return adopted;
+    }
+    
+    @Override
+    public boolean saveSnapshot(String path)
+    {
+        // Write every clause defined in the knowledge base
+        // module as a binary term
+        String goal = 
+            "setup_call_cleanup(open(" + quote(path) + ", write, S, [type(binary)]), " +
+                "forall((" +
+                    "current_predicate(" + module + ":N/A), functor(H, N, A), " +
+                    "\\+ predicate_property(" + module + ":H, built_in), " +
+                    "\\+ predicate_property(" + module + ":H, imported_from(_)), " +
+                    "clause(" + module + ":H, B)" +
+                "), fast_write(S, (H :- B))), " +
+            "close(S))";
+        return knowledgeBase.prove(goal);
+    }
+    
+    @Override
+    public boolean loadSnapshot(String path)
+    {
+        // Read back binary clause terms until the end of the
+        // snapshot, asserting each into the knowledge base module.
+        // The clauses held of each predicate are retracted on
+        // reading its first clause, such that the snapshot replaces
+        // rather than duplicates them
+        final String restored = module + ":" + SNAPSHOT_RESTORED;
+        String goal =
+            "call_cleanup(setup_call_cleanup(open(" + quote(path) + ", read, S, [type(binary)]), " +
+                "(repeat, fast_read(S, T), " +
+                    "(T == end_of_file -> ! ; " +
+                        "(T = (H :- _) -> true ; H = T), functor(H, N, A), " +
+                        "(" + restored + "(N, A) -> true ; " +
+                            "functor(G, N, A), retractall(" + module + ":G), " +
+                            "assertz(" + restored + "(N, A))), " +
+                        "assertz(" + module + ":T), fail)), " +
+            "close(S)), retractall(" + restored + "(_, _)))";
+        return invalidateOnChange(knowledgeBase.prove(goal));
+    }
+    
+    /**
+     * Quote a string as a Prolog atom.
+     * @param text Text to quote
+     * @return Quoted atom
+     */
+    private static String quote(String text)
+    {
+        return "'" + text.replace("\\", "\\\\").replace("'", "\\'").replace("\n", "\\n") + "'";
+    }
+    
     @Override
     public boolean adopt(String belief, Object... args)
     {
@@ -92,61 +285,581 @@ public class BasicBeliefIntrospection extends Skill implements SelfBeliefs
     @Override
     public boolean adoptFirst(String belief, Object... args)
     {
-        return knowledgeBase.assertLast(belief, args);
+        return invalidateOnChange(assertFirst(belief, args));
+    }
+    
+    /**
+     * Add a belief to the knowledge base before all
+     * matching beliefs.
+     * @param belief Belief to add
+     * @param args Arguments to format belief with
+     * @return True if belief was added, false otherwise.
+     */
+    private boolean assertFirst(String belief, Object... args)
+    {
+        return knowledgeBase.prove("asserta(" + module + ":(" + belief + "))", args);
     }
 
     @Override
     public boolean adoptLast(String belief, Object... args)
     {
-        return knowledgeBase.assertLast(belief, args);
+        return invalidateOnChange(knowledgeBase.assertLast(belief, args));
     }
     
     @Override
     public boolean drop(String belief, Object... args)
     {
-        return knowledgeBase.retract(belief, args);
+        return invalidateOnChange(knowledgeBase.retract(belief, args));
     }
     
     @Override
     public boolean dropAll(String belief, Object... args)
     {
-        return knowledgeBase.retractAll(belief, args);
+        return invalidateOnChange(knowledgeBase.retractAll(belief, args));
+    }
+    
+    @Override
+    public BeliefBatchResult adoptAll(Collection<String> beliefs)
+    {
+        return applyBatch(new BeliefBatch().adoptAll(beliefs), false);
+    }
+    
+    @Override
+    public BeliefBatchResult replaceAll(String pattern, Collection<String> beliefs)
+    {
+        BeliefBatch batch = new BeliefBatch()
+            .dropAll(pattern)
+            .adoptAll(beliefs);
+        return applyBatch(batch, true);
+    }
+    
+    @Override
+    public BeliefBatchResult applyBatch(BeliefBatch batch, boolean atomic)
+    {
+        final List<BeliefBatch.Item> items = batch.getItems();
+        final boolean[] statuses = new boolean[items.size()];
+        if (statuses.length == 0)
+        {
+            return new BeliefBatchResult(statuses, false);
+        }
+        
+        // Batch is applied by a single call to the knowledge
+        // base, regardless of its size
+        final String changes = formatBatchChanges(items);
+        boolean rolledBack = false;
+        
+        synchronized (batchLock)
+        {
+            if (atomic)
+            {
+                // Atomic batches are applied wholly or not at all
+                final boolean applied = timedProve(() -> 
+                    knowledgeBase.prove(atomicBatchGoal(changes)));
+                Arrays.fill(statuses, applied);
+                rolledBack = !applied;
+            }
+            else if (timedProve(() -> knowledgeBase.prove(batchGoal(changes))))
+            {
+                Arrays.fill(statuses, true);
+            }
+            else
+            {
+                readBatchStatuses(statuses);
+            }
+        }
+        
+        // Knowledge base changes are observed once per batch,
+        // rather than once per change
+        boolean changed = false;
+        for (boolean status : statuses)
+        {
+            changed |= status;
+        }
+        
+        invalidateOnChange(changed);
+        return new BeliefBatchResult(statuses, rolledBack);
+    }
+    
+    @Override
+    public void inSession(Procedure0 session)
+    {
+        synchronized (batchLock)
+        {
+            session.apply();
+        }
+    }
+    
+    /**
+     * Format the changes of a belief batch as a Prolog list of
+     * Operation-Belief pairs, each belief quoted as an atom such
+     * that it is parsed (and may fail) independently of the others.
+     * @param items Changes to format
+     * @return Formatted changes
+     */
+    private static String formatBatchChanges(List<BeliefBatch.Item> items)
+    {
+        final StringBuilder changes = new StringBuilder("[");
+        for (BeliefBatch.Item item : items)
+        {
+            if (changes.length() > 1)
+            {
+                changes.append(", ");
+            }
+            
+            changes.append(item.operation.name().toLowerCase()).append('-')
+                .append(quote(Query.format(item.belief, item.args).toString()));
+        }
+        
+        return changes.append(']').toString();
+    }
+    
+    /**
+     * Build the goal applying a single change of a batch, bound
+     * to variables Op and A, within the knowledge base module.
+     * @return Change goal
+     */
+    private String batchChangeGoal()
+    {
+        return "catch((term_to_atom(T, A), " +
+            "(Op == adopt_first -> asserta(" + module + ":T) ; " +
+            "Op == adopt_last -> assertz(" + module + ":T) ; " +
+            "Op == drop -> retract(" + module + ":T) ; " +
+            "retractall(" + module + ":T))), _, fail)";
+    }
+    
+    /**
+     * Build the goal applying each change of a batch in order,
+     * regardless of the failure of others. The goal fails given
+     * any change failed, retaining the status of every change.
+     * @param changes Formatted batch changes
+     * @return Batch goal
+     */
+    private String batchGoal(String changes)
+    {
+        return "findall(S, (member(Op-A, " + changes + "), " +
+                "(" + batchChangeGoal() + " -> S = true ; S = false)), Ss), " +
+            "(memberchk(false, Ss) -> assertz(" + module + ":" + BATCH_STATUSES + "(Ss)), fail ; true)";
+    }
+    
+    /**
+     * Read back the status of each change of a batch which
+     * was not wholly applied, discarding the retained statuses.
+     * @param statuses Statuses to fill, in batch order
+     */
+    private void readBatchStatuses(boolean[] statuses)
+    {
+        for (int i = 0; i < statuses.length; ++i)
+        {
+            statuses[i] = knowledgeBase.prove(module + ":" + BATCH_STATUSES + "(Ss), " +
+                "nth1(" + (i + 1) + ", Ss, true)");
+        }
+        
+        knowledgeBase.prove("retractall(" + module + ":" + BATCH_STATUSES + "(_))");
+    }
+    
+    /**
+     * Build the goal applying each change of a batch in order,
+     * failing and reverting every change should any change fail.
+     * <p>
+     * Batches are applied within a Prolog transaction where available.
+     * Otherwise each change records the actions reverting it, such
+     * that only the clauses added or removed by the batch are
+     * touched on rollback. Removed clauses are then restored before
+     * all other clauses of their predicate, in their prior order.
+     * @param changes Formatted batch changes
+     * @return Batch goal
+     */
+    private String atomicBatchGoal(String changes)
+    {
+        final String undo = module + ":" + BATCH_UNDO;
+        // Clause R is removed, and restored on rollback unless
+        // it was added by the batch itself
+        final String remove = 
+            "(clause(" + module + ":H0, B0, R), " +
+            "(retract(" + undo + "(erase(R))) -> true ; " +
+                "asserta(" + undo + "(asserta(" + module + ":(H0 :- B0))))), " +
+            "erase(R))";
+        final String change = 
+            "catch((term_to_atom(T, A), " +
+            "(Op == adopt_first -> asserta(" + module + ":T, R), asserta(" + undo + "(erase(R))) ; " +
+            "Op == adopt_last -> assertz(" + module + ":T, R), asserta(" + undo + "(erase(R))) ; " +
+            "Op == drop -> (T = (H :- B) -> true ; H = T, B = true), " +
+                "once(clause(" + module + ":H, B, R)), " + remove + " ; " +
+            "(T = (H :- _) -> true ; H = T), " +
+                "forall(catch(clause(" + module + ":H, _, R), _, fail), " + remove + "))), _, fail)";
+        
+        return "(predicate_property(system:transaction(_), defined) -> " +
+                "transaction(forall(member(Op-A, " + changes + "), " + batchChangeGoal() + ")) ; " +
+            "retractall(" + undo + "(_)), " +
+            "(forall(member(Op-A, " + changes + "), " + change + ") -> retractall(" + undo + "(_)) ; " +
+                "forall(retract(" + undo + "(Undo)), catch(Undo, _, true)), fail))";
     }
     
     @Override
     public boolean believes(String query, Object... args)
     {
-        return knowledgeBase.prove(query, args);
+        return timedProve(() -> knowledgeBase.prove(query, args));
     }
 
     @Override
     public boolean believes(BeliefQuery query)
     {
-        return knowledgeBase.prove(query.queryToAsk);
+        final long start = System.nanoTime();
+        final boolean believed = timedProve(() -> knowledgeBase.prove(query.queryToAsk));
+        PollTracer.getInstance().span(query.getTraceId(), "believes", owner, start);
+        
+        return believed;
     }
 
     @Override
     public QuerySolution ask(String query, Object... args)
     {
-        return knowledgeBase.askForSolution(query, args);
+        return timedAsk(() -> knowledgeBase.askForSolution(query, args));
     }
 
     @Override
     public QuerySolution ask(BeliefQuery query)
     {
-        return knowledgeBase.askForSolution(query.queryToAsk);
+        final long start = System.nanoTime();
+        final QuerySolution solution = timedAsk(() -> knowledgeBase.askForSolution(query.queryToAsk));
+        PollTracer.getInstance().span(query.getTraceId(), "ask", owner, start);
+        
+        return solution;
     }
 
     @Override
     public QuerySolutionList askAll(String query, Object... args)
     {
-        return knowledgeBase.askForAllSolutions(query, args);
+        if (queryCache == null)
+        {
+            return timedAsk(() -> knowledgeBase.askForAllSolutions(query, args));
+        }
+        
+        return askAll(Query.format(query, args));
     }
 
     @Override
     public QuerySolutionList askAll(BeliefQuery query)
     {
-        return knowledgeBase.askForAllSolutions(query.queryToAsk);
+        final long start = System.nanoTime();
+        final QuerySolutionList solutions = askAll(query.queryToAsk);
+        PollTracer.getInstance().span(query.getTraceId(), "askAll", owner, start);
+        
+        return solutions;
+    }
+    
+    @Override
+    public BeliefSolutionIterator askIterator(String query, Object... args)
+    {
+        return iterate(new EnginePageSource(query, args), BeliefSolutionIterator.DEFAULT_PAGE_SIZE);
+    }
+    
+    @Override
+    public BeliefSolutionIterator askIterator(BeliefQuery query, int pageSize)
+    {
+        return iterate(new EnginePageSource(query.queryToAsk.toString()), pageSize);
+    }
+    
+    /**
+     * Create an iterator drawing from a solution engine, tracking
+     * the iterator such that the engine is destroyed should the
+     * iterator be collected without being closed.
+     * @param source Source of solution pages
+     * @param pageSize Number of solutions to fetch per page
+     * @return Agent belief iterator
+     */
+    private BeliefSolutionIterator iterate(EnginePageSource source, int pageSize)
+    {
+        // Engines of abandoned iterators are reclaimed as
+        // further iterators are created
+        destroyAbandonedEngines();
+        
+        final BeliefSolutionIterator iterator = new BeliefSolutionIterator(source, pageSize);
+        source.reference = new EngineReference(iterator, source.engine, abandonedIterators);
+        engineReferences.add(source.reference);
+        
+        return iterator;
+    }
+    
+    /**
+     * Destroy the solution engines of iterators which were
+     * collected without being closed.
+     */
+    private void destroyAbandonedEngines()
+    {
+        Reference<? extends BeliefSolutionIterator> reference;
+        while ((reference = abandonedIterators.poll()) != null)
+        {
+            engineReferences.remove(reference);
+            destroyEngine(((EngineReference) reference).engine);
+        }
+    }
+    
+    /**
+     * Destroy a solution engine given it is held open.
+     * @param engine Name of engine
+     */
+    private void destroyEngine(String engine)
+    {
+        if (openEngines.remove(engine))
+        {
+            knowledgeBase.prove("catch(engine_destroy(" + engine + "), _, true)");
+        }
+    }
+    
+    @Override
+    protected void uninstall()
+    {
+        // Engines of iterators left open are destroyed
+        // along with the skill
+        for (String engine : openEngines)
+        {
+            destroyEngine(engine);
+        }
+        
+        for (EngineReference reference : engineReferences)
+        {
+            reference.clear();
+        }
+        engineReferences.clear();
+        
+        super.uninstall();
+    }
+    
+    /**
+     * Reference to an iterator drawing from a solution engine,
+     * naming the engine to destroy once the iterator is collected.
+     */
+    private static class EngineReference extends PhantomReference<BeliefSolutionIterator>
+    {
+        // Name of engine iterator draws from
+        private final String engine;
+        
+        /**
+         * Constructor.
+         * @param iterator Iterator drawing from engine
+         * @param engine Name of engine
+         * @param queue Queue to enqueue reference on once
+         * iterator is collected
+         */
+        public EngineReference(BeliefSolutionIterator iterator, String engine, 
+            ReferenceQueue<? super BeliefSolutionIterator> queue)
+        {
+            super(iterator, queue);
+            this.engine = engine;
+        }
+    }
+    
+    /**
+     * Source of solution pages drawn from a single Prolog engine
+     * solving the query, such that each page resumes the search
+     * where the previous page stopped rather than re-deriving
+     * skipped solutions. The engine is created on the first
+     * page, and destroyed once the source is closed, its iterator
+     * is collected or the skill is uninstalled.
+     */
+    private class EnginePageSource implements BeliefSolutionIterator.PageSource
+    {
+        // Name under which the engine is known to Prolog
+        private final String engine;
+        // Unformatted query to solve
+        private final String query;
+        // Arguments to format query with
+        private final Object[] args;
+        
+        // Whether the engine has been created
+        private boolean started;
+        // Whether the engine has been destroyed
+        private boolean closed;
+        
+        // Reference to the iterator drawing from the source
+        private EngineReference reference;
+        
+        /**
+         * Constructor.
+         * @param query Unformatted query to solve
+         * @param args Arguments to format query with
+         */
+        public EnginePageSource(String query, Object... args)
+        {
+            this.engine = "belief_solutions_" + module + "_" + enginesCreated.incrementAndGet();
+            this.query = query;
+            this.args = args;
+        }
+        
+        @Override
+        public QuerySolutionList fetch(int limit)
+        {
+            if (closed)
+            {
+                return null;
+            }
+            
+            if (!started)
+            {
+                // Solve the query within the knowledge base module,
+                // yielding each solution as an instance of the query
+                started = true;
+                final String create = 
+                    "BeliefEngineGoal = (" + query + "), " +
+                    "engine_create(BeliefEngineGoal, " + module + ":BeliefEngineGoal, _, " +
+                        "[alias(" + engine + ")])";
+                if (!knowledgeBase.prove(create, args))
+                {
+                    close();
+                    return null;
+                }
+                
+                openEngines.add(engine);
+            }
+            // Engine destroyed along with the skill
+            else if (!openEngines.contains(engine))
+            {
+                close();
+                return null;
+            }
+            
+            // Draw at most a page of further solutions from the
+            // engine, binding the variables of the query to each
+            final String page = 
+                "between(1, " + limit + ", _), " +
+                "(engine_next(" + engine + ", (" + query + ")) -> true ; !, fail)";
+            return timedAsk(() -> knowledgeBase.askForAllSolutions(page, args));
+        }
+        
+        @Override
+        public void close()
+        {
+            if (!closed)
+            {
+                closed = true;
+                destroyEngine(engine);
+                
+                // Closed iterators need not be tracked
+                // until collected
+                if (reference != null)
+                {
+                    engineReferences.remove(reference);
+                    reference.clear();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Ask for all beliefs which satisfy query, answering
+     * from the query cache where possible.
+     * @param query Query to ask
+     * @return Agent belief list
+     */
+    private QuerySolutionList askAll(Query query)
+    {
+        final BeliefQueryCache cache = queryCache;
+        if (cache == null)
+        {
+            return timedAsk(() -> knowledgeBase.askForAllSolutions(query));
+        }
+        
+        QuerySolutionList solutions = cache.get(query);
+        if (solutions == null)
+        {
+            final long generation = cache.getGeneration();
+            solutions = timedAsk(() -> knowledgeBase.askForAllSolutions(query));
+            cache.put(query, solutions, generation);
+        }
+        
+        return solutions;
+    }
+    
+    /**
+     * Enable caching of the solutions to queries asked of the
+     * knowledge base. Cached solutions are discarded whenever
+     * beliefs are adopted, dropped or loaded.
+     * @param capacity Maximum number of queries to retain
+     * solutions for
+     */
+    public void enableQueryCache(int capacity)
+    {
+        queryCache = new BeliefQueryCache(capacity);
+    }
+    
+    /**
+     * Disable caching of query solutions.
+     */
+    public void disableQueryCache()
+    {
+        queryCache = null;
+    }
+    
+    /**
+     * Get the cache of query solutions.
+     * @return Query cache, or null if caching disabled
+     */
+    public BeliefQueryCache getQueryCache()
+    {
+        return queryCache;
+    }
+    
+    /**
+     * Invalidate cached query solutions given the knowledge
+     * base was changed.
+     * @param changed Whether knowledge base was changed
+     * @return Change status
+     */
+    private boolean invalidateOnChange(boolean changed)
+    {
+        if (changed)
+        {
+            BeliefMetrics.get().getKnowledgeBaseChanges().increment();
+        }
+        
+        final BeliefQueryCache cache = queryCache;
+        if (changed && cache != null)
+        {
+            cache.invalidate();
+        }
+        
+        return changed;
+    }
+    
+    /**
+     * Make a call to the knowledge base, reporting its
+     * duration to the knowledge base call timer.
+     * @param call Call to make
+     * @return Call result
+     */
+    private static <T> T timedAsk(Supplier<T> call)
+    {
+        final Timer timer = BeliefMetrics.get().getKnowledgeBaseCalls();
+        final long start = System.nanoTime();
+        try
+        {
+            return call.get();
+        }
+        finally
+        {
+            timer.record(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Make a call to the knowledge base, reporting its
+     * duration to the knowledge base call timer.
+     * @param call Call to make
+     * @return Call result
+     */
+    private static boolean timedProve(BooleanSupplier call)
+    {
+        final Timer timer = BeliefMetrics.get().getKnowledgeBaseCalls();
+        final long start = System.nanoTime();
+        try
+        {
+            return call.getAsBoolean();
+        }
+        finally
+        {
+            timer.record(System.nanoTime() - start);
+        }
     }
 
     /**
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ordered batch of belief changes to be applied to
+ * a knowledge base together.
+ */
+public class BeliefBatch
+{
+    /**
+     * Kind of change made to the knowledge base.
+     */
+    public static enum Operation
+    {
+        ADOPT_FIRST,
+        ADOPT_LAST,
+        DROP,
+        DROP_ALL
+    }
+    
+    /**
+     * Single change within a belief batch.
+     */
+    public static final class Item
+    {
+        // Kind of change to make
+        public final Operation operation;
+        // Belief to change, and arguments to format it with
+        public final String belief;
+        public final Object[] args;
+        
+        /**
+         * Constructor.
+         * @param operation Kind of change to make
+         * @param belief Belief to change
+         * @param args Arguments to format belief with
+         */
+        private Item(Operation operation, String belief, Object... args)
+        {
+            this.operation = operation;
+            this.belief = belief;
+            this.args = args;
+        }
+    }
+    
+    // Changes to apply, in order
+    private final List<Item> items;
+    
+    /**
+     * Constructor.
+     */
+    public BeliefBatch()
+    {
+        items = new ArrayList<Item>();
+    }
+    
+    /**
+     * Add a new belief to the knowledge base.
+     * Added before all matching beliefs.
+     * @param belief Belief to add
+     * @param args Arguments to format belief with
+     * @return Batch instance
+     */
+    public BeliefBatch adopt(String belief, Object... args)
+    {
+        return adoptFirst(belief, args);
+    }
+    
+    /**
+     * Add a new belief to the knowledge base.
+     * Added before all matching beliefs.
+     * @param belief Belief to add
+     * @param args Arguments to format belief with
+     * @return Batch instance
+     */
+    public BeliefBatch adoptFirst(String belief, Object... args)
+    {
+        return add(Operation.ADOPT_FIRST, belief, args);
+    }
+    
+    /**
+     * Add a new belief to the knowledge base.
+     * Added after all matching beliefs.
+     * @param belief Belief to add
+     * @param args Arguments to format belief with
+     * @return Batch instance
+     */
+    public BeliefBatch adoptLast(String belief, Object... args)
+    {
+        return add(Operation.ADOPT_LAST, belief, args);
+    }
+    
+    /**
+     * Add a collection of new beliefs to the knowledge base.
+     * Each is added after all matching beliefs.
+     * @param beliefs Beliefs to add
+     * @return Batch instance
+     */
+    public BeliefBatch adoptAll(Collection<String> beliefs)
+    {
+        for (String belief : beliefs)
+        {
+            adoptLast(belief);
+        }
+        
+        return this;
+    }
+    
+    /**
+     * Drop the first matching belief from the knowledge base.
+     * @param belief Belief to remove
+     * @param args Arguments to format belief with
+     * @return Batch instance
+     */
+    public BeliefBatch drop(String belief, Object... args)
+    {
+        return add(Operation.DROP, belief, args);
+    }
+    
+    /**
+     * Drop all matching beliefs from the knowledge base.
+     * @param belief Belief definition for which all matching
+     * beliefs should be removed
+     * @param args Arguments to format belief with
+     * @return Batch instance
+     */
+    public BeliefBatch dropAll(String belief, Object... args)
+    {
+        return add(Operation.DROP_ALL, belief, args);
+    }
+    
+    /**
+     * Append a change to the batch.
+     * @param operation Kind of change to make
+     * @param belief Belief to change
+     * @param args Arguments to format belief with
+     * @return Batch instance
+     */
+    private BeliefBatch add(Operation operation, String belief, Object... args)
+    {
+        items.add(new Item(operation, belief, args));
+        return this;
+    }
+    
+    /**
+     * Get the changes in the batch, in the order
+     * they will be applied.
+     * @return Batch changes
+     */
+    public List<Item> getItems()
+    {
+        return Collections.unmodifiableList(items);
+    }
+    
+    /**
+     * Get the number of changes in the batch.
+     * @return Batch size
+     */
+    public int size()
+    {
+        return items.size();
+    }
+}
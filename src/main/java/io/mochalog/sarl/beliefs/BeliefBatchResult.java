@@ -0,0 +1,100 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs;
+
+/**
+ * Outcome of applying a belief batch to a knowledge base.
+ */
+public class BeliefBatchResult
+{
+    // Success status of each batch change, in batch order
+    private final boolean[] statuses;
+    // Number of successful changes
+    private final int successCount;
+    // Whether applied changes were reverted following a failure
+    private final boolean rolledBack;
+    
+    /**
+     * Constructor.
+     * @param statuses Success status of each batch change (false
+     * for every change of a rolled back batch)
+     * @param rolledBack Whether applied changes were reverted
+     */
+    public BeliefBatchResult(boolean[] statuses, boolean rolledBack)
+    {
+        this.statuses = statuses;
+        this.rolledBack = rolledBack;
+        
+        int successes = 0;
+        for (boolean status : statuses)
+        {
+            if (status)
+            {
+                successes++;
+            }
+        }
+        successCount = successes;
+    }
+    
+    /**
+     * Check if every change in the batch succeeded.
+     * @return True if all changes succeeded, false otherwise.
+     */
+    public boolean isSuccessful()
+    {
+        return !rolledBack && successCount == statuses.length;
+    }
+    
+    /**
+     * Get the success status of a single batch change. Changes
+     * of a rolled back batch were not applied.
+     * @param index Position of change in batch
+     * @return True if change was applied, false otherwise.
+     */
+    public boolean getStatus(int index)
+    {
+        return statuses[index];
+    }
+    
+    /**
+     * Get the number of batch changes which succeeded.
+     * @return Number of successful changes
+     */
+    public int getSuccessCount()
+    {
+        return successCount;
+    }
+    
+    /**
+     * Get the number of changes in the batch.
+     * @return Batch size
+     */
+    public int size()
+    {
+        return statuses.length;
+    }
+    
+    /**
+     * Check if changes applied by the batch were reverted
+     * following the failure of a later change.
+     * @return True if batch was rolled back, false otherwise.
+     */
+    public boolean isRolledBack()
+    {
+        return rolledBack;
+    }
+}
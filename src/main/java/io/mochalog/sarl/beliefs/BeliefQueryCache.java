@@ -0,0 +1,206 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs;
+
+import io.mochalog.bridge.prolog.query.Query;
+import io.mochalog.bridge.prolog.query.QuerySolutionList;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded, least-recently-used cache of query solutions
+ * drawn from a single knowledge base.
+ * <p>
+ * Any change to the knowledge base invalidates the cache
+ * as a whole, given rules allow a query to depend on
+ * predicates it does not itself name.
+ * <p>
+ * Solutions are held as a private copy and handed out as
+ * fresh copies, such that callers mutating solutions they
+ * cached or were answered with cannot corrupt later answers.
+ */
+public class BeliefQueryCache
+{
+    // Maximum number of queries to retain solutions for
+    private final int capacity;
+    // Cached solutions, ordered from least to most recently used
+    private final LinkedHashMap<Query, QuerySolutionList> solutions;
+
+    // Number of knowledge base changes observed, used to
+    // discard solutions computed across a change
+    private long generation;
+
+    // Cache access statistics
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor.
+     * @param capacity Maximum number of queries to
+     * retain solutions for
+     */
+    public BeliefQueryCache(final int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Query cache capacity must be positive.");
+        }
+
+        this.capacity = capacity;
+        solutions = new LinkedHashMap<Query, QuerySolutionList>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Query, QuerySolutionList> eldest)
+            {
+                if (size() > BeliefQueryCache.this.capacity)
+                {
+                    evictions++;
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the cached solutions to a query.
+     * @param query Query asked
+     * @return Copy of cached solutions, or null if not cached
+     */
+    public QuerySolutionList get(Query query)
+    {
+        final QuerySolutionList cached;
+        synchronized (this)
+        {
+            cached = solutions.get(query);
+            if (cached != null)
+            {
+                hits++;
+            }
+            else
+            {
+                misses++;
+            }
+        }
+
+        // Copy outside of the lock, cached solutions
+        // are never mutated once stored
+        return cached == null ? null : copyOf(cached);
+    }
+
+    /**
+     * Cache the solutions to a query.
+     * @param query Query asked
+     * @param querySolutions Solutions to query
+     * @param askedAt Cache generation at which the query
+     * was asked
+     */
+    public synchronized void put(Query query, QuerySolutionList querySolutions, long askedAt)
+    {
+        // Solutions are stale if the knowledge base changed
+        // while the query was being answered
+        if (askedAt == generation && querySolutions != null)
+        {
+            solutions.put(query, copyOf(querySolutions));
+        }
+    }
+    
+    /**
+     * Copy a list of solutions, such that the copy is
+     * unaffected by mutation of the original.
+     * @param querySolutions Solutions to copy
+     * @return Solution copy
+     */
+    private static QuerySolutionList copyOf(QuerySolutionList querySolutions)
+    {
+        QuerySolutionList copy = new QuerySolutionList();
+        copy.addAll(querySolutions);
+        return copy;
+    }
+
+    /**
+     * Discard all cached solutions following a change
+     * to the knowledge base.
+     */
+    public synchronized void invalidate()
+    {
+        generation++;
+        solutions.clear();
+    }
+
+    /**
+     * Get the current cache generation, to be supplied on
+     * caching the solutions to a query about to be asked.
+     * @return Cache generation
+     */
+    public synchronized long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Get the maximum number of queries the cache
+     * will retain solutions for.
+     * @return Cache capacity
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Get the number of queries currently cached.
+     * @return Cache size
+     */
+    public synchronized int size()
+    {
+        return solutions.size();
+    }
+
+    /**
+     * Get the number of lookups answered from the cache.
+     * @return Hit count
+     */
+    public synchronized long getHitCount()
+    {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups not answered from the cache.
+     * @return Miss count
+     */
+    public synchronized long getMissCount()
+    {
+        return misses;
+    }
+
+    /**
+     * Get the number of cached queries evicted to keep the
+     * cache within capacity.
+     * @return Eviction count
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictions;
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs;
+
+import io.mochalog.bridge.prolog.query.QuerySolution;
+import io.mochalog.bridge.prolog.query.QuerySolutionList;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over the solutions to a query, fetching solutions
+ * from the knowledge base one page at a time as they are
+ * consumed. At most a single page of solutions is held
+ * in memory at once.
+ * <p>
+ * The query is held open between pages, and is released once
+ * its final page is fetched or the iterator is closed. Callers
+ * which stop iterating early must close the iterator (such as
+ * through try-with-resources). Queries of abandoned iterators are
+ * otherwise held open until the iterator is garbage collected,
+ * or the skill which created it is uninstalled.
+ */
+public class BeliefSolutionIterator implements Iterator<QuerySolution>, AutoCloseable
+{
+    // Default number of solutions to fetch per page
+    public static final int DEFAULT_PAGE_SIZE = 256;
+    
+    /**
+     * Source of solution pages, each resuming the query
+     * where the previous page stopped.
+     */
+    @FunctionalInterface
+    public static interface PageSource
+    {
+        /**
+         * Fetch the next page of solutions to the query.
+         * @param limit Maximum number of solutions to fetch
+         * @return Page of solutions
+         */
+        public QuerySolutionList fetch(int limit);
+        
+        /**
+         * Release any resources held open for the query.
+         */
+        public default void close()
+        {
+        }
+    }
+    
+    // Source of solution pages
+    private final PageSource source;
+    // Number of solutions to fetch per page
+    private final int pageSize;
+    
+    // Solutions of the current page yet to be consumed
+    private Iterator<QuerySolution> page;
+    // Whether the final page has been fetched
+    private boolean exhausted;
+    // Whether the iterator has been closed
+    private boolean closed;
+    
+    /**
+     * Constructor.
+     * @param source Source of solution pages
+     * @param pageSize Number of solutions to fetch per page
+     */
+    public BeliefSolutionIterator(PageSource source, int pageSize)
+    {
+        if (pageSize <= 0)
+        {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        
+        this.source = source;
+        this.pageSize = pageSize;
+    }
+    
+    @Override
+    public boolean hasNext()
+    {
+        if (closed)
+        {
+            return false;
+        }
+        
+        if (page != null && page.hasNext())
+        {
+            return true;
+        }
+        
+        if (exhausted)
+        {
+            return false;
+        }
+        
+        fetchNextPage();
+        return page.hasNext();
+    }
+    
+    @Override
+    public QuerySolution next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("No further solutions to query.");
+        }
+        
+        return page.next();
+    }
+    
+    /**
+     * Fetch the next page of solutions from the
+     * knowledge base.
+     */
+    private void fetchNextPage()
+    {
+        final List<QuerySolution> solutions = new ArrayList<QuerySolution>(pageSize);
+        final QuerySolutionList fetched = source.fetch(pageSize);
+        if (fetched != null)
+        {
+            for (QuerySolution solution : fetched)
+            {
+                solutions.add(solution);
+            }
+        }
+        
+        // A short page indicates no solutions remain
+        exhausted = solutions.size() < pageSize;
+        page = solutions.iterator();
+        
+        if (exhausted)
+        {
+            source.close();
+        }
+    }
+    
+    /**
+     * Get a sequential stream over the remaining solutions. Closing
+     * the stream closes the iterator.
+     * @return Solution stream
+     */
+    public Stream<QuerySolution> stream()
+    {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+    
+    @Override
+    public void close()
+    {
+        // Release the buffered page and the query held
+        // open, no further pages will be fetched
+        if (!closed)
+        {
+            closed = true;
+            page = null;
+            source.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs;
+
+/**
+ * Listener notified of the progress of a bulk load
+ * into a knowledge base.
+ */
+@FunctionalInterface
+public interface BulkLoadListener
+{
+    /**
+     * Notify of progress following the adoption of a
+     * batch of facts.
+     * @param bytesRead Number of bytes of the fact file
+     * read so far
+     * @param totalBytes Size of the fact file in bytes
+     * @param factsAdopted Number of facts adopted so far
+     */
+    public void onProgress(long bytesRead, long totalBytes, long factsAdopted);
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of bulk loading a fact file into a knowledge base.
+ */
+public class BulkLoadResult
+{
+    // Number of facts read from the file
+    private final long factsRead;
+    // Number of facts successfully adopted
+    private final long factsAdopted;
+    // Number of bytes read from the file
+    private final long bytesRead;
+    // Time taken by the load, in ns
+    private final long elapsedTime;
+    // Whether the whole file was read
+    private final boolean completed;
+    
+    /**
+     * Constructor.
+     * @param factsRead Number of facts read from the file
+     * @param factsAdopted Number of facts successfully adopted
+     * @param bytesRead Number of bytes read from the file
+     * @param elapsedTime Time taken by the load, in ns
+     * @param completed Whether the whole file was read
+     */
+    public BulkLoadResult(long factsRead, long factsAdopted, long bytesRead, 
+        long elapsedTime, boolean completed)
+    {
+        this.factsRead = factsRead;
+        this.factsAdopted = factsAdopted;
+        this.bytesRead = bytesRead;
+        this.elapsedTime = elapsedTime;
+        this.completed = completed;
+    }
+    
+    /**
+     * Check if the whole file was read and every
+     * fact in it adopted.
+     * @return True if load succeeded, false otherwise.
+     */
+    public boolean isSuccessful()
+    {
+        return completed && factsAdopted == factsRead;
+    }
+    
+    /**
+     * Check if the whole file was read. Facts adopted before
+     * a read failure remain in the knowledge base.
+     * @return True if file was read in full, false otherwise.
+     */
+    public boolean isCompleted()
+    {
+        return completed;
+    }
+    
+    /**
+     * Get the number of facts read from the file.
+     * @return Fact count
+     */
+    public long getFactsRead()
+    {
+        return factsRead;
+    }
+    
+    /**
+     * Get the number of facts successfully adopted.
+     * @return Fact count
+     */
+    public long getFactsAdopted()
+    {
+        return factsAdopted;
+    }
+    
+    /**
+     * Get the number of bytes read from the file.
+     * @return Byte count
+     */
+    public long getBytesRead()
+    {
+        return bytesRead;
+    }
+    
+    /**
+     * Get the time taken by the load.
+     * @return Time in ms
+     */
+    public long getElapsedTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedTime);
+    }
+    
+    /**
+     * Get the rate at which facts were adopted.
+     * @return Facts per second
+     */
+    public double getFactsPerSecond()
+    {
+        return elapsedTime == 0 ? 0 : factsAdopted * 1e9 / elapsedTime;
+    }
+    
+    /**
+     * Get the rate at which the file was read.
+     * @return Bytes per second
+     */
+    public double getBytesPerSecond()
+    {
+        return elapsedTime == 0 ? 0 : bytesRead * 1e9 / elapsedTime;
+    }
+}
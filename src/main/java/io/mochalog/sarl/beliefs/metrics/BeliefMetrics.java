@@ -0,0 +1,237 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.metrics;
+
+import io.mochalog.sarl.beliefs.social.analysis.SocialExperimentBallot;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instruments through which beliefs and social experiments
+ * report their metrics, drawn from the installed metrics
+ * registry. Until a registry is installed, all metrics
+ * are discarded.
+ */
+public final class BeliefMetrics
+{
+    // Names of reported metrics
+    public static final String QUERIES_ASKED = "beliefs.queries.asked";
+    public static final String QUERIES_ANSWERED = "beliefs.queries.answered";
+    public static final String QUERIES_SHED = "beliefs.queries.shed";
+    public static final String DISCLOSURES_SENT = "beliefs.disclosures.sent";
+    public static final String DISCLOSURES_RECEIVED = "beliefs.disclosures.received";
+    public static final String KNOWLEDGE_BASE_CALLS = "beliefs.knowledgebase.calls";
+    public static final String KNOWLEDGE_BASE_CHANGES = "beliefs.knowledgebase.changes";
+    public static final String ACTIVE_EXPERIMENTS = "beliefs.experiments.active";
+    public static final String OUTSTANDING_RESPONDERS = "beliefs.experiments.outstanding";
+    
+    // Suffixes of metrics reported for each kind of experiment
+    // (such as "beliefs.poll.started"). Each started experiment
+    // ends exactly once: completed with a result decided by its
+    // evaluator, timed out, or cancelled without a result
+    public static final String EXPERIMENT_STARTED = ".started";
+    public static final String EXPERIMENT_COMPLETED = ".completed";
+    public static final String EXPERIMENT_TIMED_OUT = ".timedout";
+    public static final String EXPERIMENT_CANCELLED = ".cancelled";
+    public static final String EXPERIMENT_DURATION = ".duration";
+    
+    // Instruments currently reported to
+    private static volatile BeliefMetrics current = new BeliefMetrics(NoopMetricsRegistry.INSTANCE);
+    
+    // Experiments currently in progress
+    private static final Set<SocialExperimentBallot> activeExperiments = 
+        ConcurrentHashMap.newKeySet();
+    
+    // Registry providing instruments
+    private final MetricsRegistry registry;
+    
+    // Instruments of frequently reported metrics
+    private final Counter queriesAsked;
+    private final Counter queriesAnswered;
+    private final Counter queriesShed;
+    private final Counter disclosuresSent;
+    private final Counter disclosuresReceived;
+    private final Timer knowledgeBaseCalls;
+    private final Counter knowledgeBaseChanges;
+    
+    /**
+     * Constructor.
+     * @param registry Registry providing instruments
+     */
+    private BeliefMetrics(MetricsRegistry registry)
+    {
+        this.registry = registry;
+        
+        queriesAsked = registry.counter(QUERIES_ASKED);
+        queriesAnswered = registry.counter(QUERIES_ANSWERED);
+        queriesShed = registry.counter(QUERIES_SHED);
+        disclosuresSent = registry.counter(DISCLOSURES_SENT);
+        disclosuresReceived = registry.counter(DISCLOSURES_RECEIVED);
+        knowledgeBaseCalls = registry.timer(KNOWLEDGE_BASE_CALLS);
+        knowledgeBaseChanges = registry.counter(KNOWLEDGE_BASE_CHANGES);
+    }
+    
+    /**
+     * Install a registry to report all subsequent metrics to.
+     * @param registry Metrics registry, or null to
+     * discard metrics
+     */
+    public static void install(MetricsRegistry registry)
+    {
+        if (registry == null)
+        {
+            registry = NoopMetricsRegistry.INSTANCE;
+        }
+        
+        registry.gauge(ACTIVE_EXPERIMENTS, () -> activeExperiments.size());
+        registry.gauge(OUTSTANDING_RESPONDERS, () -> 
+        {
+            long outstanding = 0;
+            for (SocialExperimentBallot experiment : activeExperiments)
+            {
+                outstanding += experiment.getOutstandingResponderCount();
+            }
+            
+            return outstanding;
+        });
+        
+        current = new BeliefMetrics(registry);
+    }
+    
+    /**
+     * Get the instruments currently reported to.
+     * @return Belief metrics
+     */
+    public static BeliefMetrics get()
+    {
+        return current;
+    }
+    
+    /**
+     * Get the registry providing instruments.
+     * @return Metrics registry
+     */
+    public MetricsRegistry getRegistry()
+    {
+        return registry;
+    }
+    
+    /**
+     * Get the counter of queries asked of other agents.
+     * @return Counter
+     */
+    public Counter getQueriesAsked()
+    {
+        return queriesAsked;
+    }
+    
+    /**
+     * Get the counter of queries answered for other agents.
+     * @return Counter
+     */
+    public Counter getQueriesAnswered()
+    {
+        return queriesAnswered;
+    }
+    
+    /**
+     * Get the counter of queries left unevaluated for
+     * lack of capacity to evaluate them.
+     * @return Counter
+     */
+    public Counter getQueriesShed()
+    {
+        return queriesShed;
+    }
+    
+    /**
+     * Get the counter of disclosures told to other agents.
+     * @return Counter
+     */
+    public Counter getDisclosuresSent()
+    {
+        return disclosuresSent;
+    }
+    
+    /**
+     * Get the counter of disclosures received by
+     * disclosure listeners.
+     * @return Counter
+     */
+    public Counter getDisclosuresReceived()
+    {
+        return disclosuresReceived;
+    }
+    
+    /**
+     * Get the timer of calls made to knowledge bases.
+     * @return Timer
+     */
+    public Timer getKnowledgeBaseCalls()
+    {
+        return knowledgeBaseCalls;
+    }
+    
+    /**
+     * Get the counter of changes made to knowledge bases.
+     * @return Counter
+     */
+    public Counter getKnowledgeBaseChanges()
+    {
+        return knowledgeBaseChanges;
+    }
+    
+    /**
+     * Get a counter reported for a kind of experiment.
+     * @param kind Kind of experiment (such as "poll")
+     * @param suffix Metric suffix (such as EXPERIMENT_STARTED)
+     * @return Counter
+     */
+    public Counter getExperimentCounter(String kind, String suffix)
+    {
+        return registry.counter("beliefs." + kind + suffix);
+    }
+    
+    /**
+     * Get the timer of durations of a kind of experiment.
+     * @param kind Kind of experiment (such as "poll")
+     * @return Timer
+     */
+    public Timer getExperimentDuration(String kind)
+    {
+        return registry.timer("beliefs." + kind + EXPERIMENT_DURATION);
+    }
+    
+    /**
+     * Track an experiment as in progress.
+     * @param experiment Started experiment
+     */
+    public static void experimentStarted(SocialExperimentBallot experiment)
+    {
+        activeExperiments.add(experiment);
+    }
+    
+    /**
+     * Stop tracking an experiment as in progress.
+     * @param experiment Ended experiment
+     */
+    public static void experimentEnded(SocialExperimentBallot experiment)
+    {
+        activeExperiments.remove(experiment);
+    }
+}
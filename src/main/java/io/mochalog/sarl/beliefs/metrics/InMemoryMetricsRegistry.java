@@ -0,0 +1,166 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics registry holding all metrics in memory, allowing
+ * them to be inspected without an external monitoring system.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry
+{
+    // Instruments registered by name
+    private final Map<String, InMemoryCounter> counters;
+    private final Map<String, InMemoryTimer> timers;
+    private final Map<String, LongSupplier> gauges;
+    
+    /**
+     * Constructor.
+     */
+    public InMemoryMetricsRegistry()
+    {
+        counters = new ConcurrentHashMap<String, InMemoryCounter>();
+        timers = new ConcurrentHashMap<String, InMemoryTimer>();
+        gauges = new ConcurrentHashMap<String, LongSupplier>();
+    }
+
+    @Override
+    public Counter counter(String name)
+    {
+        return counters.computeIfAbsent(name, (key) -> new InMemoryCounter());
+    }
+
+    @Override
+    public Timer timer(String name)
+    {
+        return timers.computeIfAbsent(name, (key) -> new InMemoryTimer());
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value)
+    {
+        gauges.put(name, value);
+    }
+    
+    /**
+     * Get the current value of a gauge.
+     * @param name Metric name
+     * @return Gauge value, or 0 given no such gauge
+     * is registered
+     */
+    public long getGaugeValue(String name)
+    {
+        final LongSupplier gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.getAsLong();
+    }
+    
+    /**
+     * Get the current count of every counter, ordered by name.
+     * @return Counts by metric name
+     */
+    public Map<String, Long> getCounts()
+    {
+        Map<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<String, InMemoryCounter> counter : counters.entrySet())
+        {
+            counts.put(counter.getKey(), counter.getValue().count());
+        }
+        
+        return Collections.unmodifiableMap(counts);
+    }
+    
+    /**
+     * Get every timer, ordered by name.
+     * @return Timers by metric name
+     */
+    public Map<String, Timer> getTimers()
+    {
+        return Collections.<String, Timer>unmodifiableMap(new TreeMap<String, Timer>(timers));
+    }
+    
+    /**
+     * Counter held in memory.
+     */
+    private static class InMemoryCounter implements Counter
+    {
+        // Number of occurrences counted
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void increment()
+        {
+            count.increment();
+        }
+
+        @Override
+        public void increment(long amount)
+        {
+            count.add(amount);
+        }
+
+        @Override
+        public long count()
+        {
+            return count.sum();
+        }
+    }
+    
+    /**
+     * Timer held in memory.
+     */
+    private static class InMemoryTimer implements Timer
+    {
+        // Number, total and greatest duration in ns
+        // of operations recorded
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalTime = new LongAdder();
+        private final AtomicLong maxTime = new AtomicLong();
+
+        @Override
+        public void record(long duration)
+        {
+            count.increment();
+            totalTime.add(duration);
+            maxTime.accumulateAndGet(duration, Math::max);
+        }
+
+        @Override
+        public long count()
+        {
+            return count.sum();
+        }
+
+        @Override
+        public long totalTime()
+        {
+            return totalTime.sum();
+        }
+
+        @Override
+        public long maxTime()
+        {
+            return maxTime.get();
+        }
+    }
+}
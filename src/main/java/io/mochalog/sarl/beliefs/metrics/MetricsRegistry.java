@@ -0,0 +1,52 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Service providing the instruments through which beliefs
+ * and social experiments report their metrics. Implementations
+ * adapt these instruments to a monitoring system.
+ * <p>
+ * Instruments are retrieved by name, with repeated retrieval
+ * of the same name producing the same instrument.
+ */
+public interface MetricsRegistry
+{
+    /**
+     * Get the counter of a given name.
+     * @param name Metric name
+     * @return Counter
+     */
+    public Counter counter(String name);
+    
+    /**
+     * Get the timer of a given name.
+     * @param name Metric name
+     * @return Timer
+     */
+    public Timer timer(String name);
+    
+    /**
+     * Register a gauge of a given name, sampling its value
+     * from a supplier whenever the gauge is read.
+     * @param name Metric name
+     * @param value Supplier of gauge value
+     */
+    public void gauge(String name, LongSupplier value);
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics registry discarding all metrics reported to it.
+ * Used where no registry has been installed.
+ */
+public final class NoopMetricsRegistry implements MetricsRegistry
+{
+    // Shared registry instance
+    public static final NoopMetricsRegistry INSTANCE = new NoopMetricsRegistry();
+    
+    // Instruments shared by all metric names
+    private static final Counter COUNTER = new Counter()
+    {
+        @Override
+        public void increment()
+        {
+        }
+
+        @Override
+        public void increment(long amount)
+        {
+        }
+
+        @Override
+        public long count()
+        {
+            return 0;
+        }
+    };
+    
+    private static final Timer TIMER = new Timer()
+    {
+        @Override
+        public void record(long duration)
+        {
+        }
+
+        @Override
+        public long count()
+        {
+            return 0;
+        }
+
+        @Override
+        public long totalTime()
+        {
+            return 0;
+        }
+
+        @Override
+        public long maxTime()
+        {
+            return 0;
+        }
+    };
+    
+    /**
+     * Constructor.
+     */
+    private NoopMetricsRegistry()
+    {
+    }
+
+    @Override
+    public Counter counter(String name)
+    {
+        return COUNTER;
+    }
+
+    @Override
+    public Timer timer(String name)
+    {
+        return TIMER;
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value)
+    {
+    }
+}
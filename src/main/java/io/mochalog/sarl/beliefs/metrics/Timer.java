@@ -0,0 +1,47 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.metrics;
+
+/**
+ * Record of the durations of a timed operation.
+ */
+public interface Timer
+{
+    /**
+     * Record the duration of a single operation.
+     * @param duration Time in ns
+     */
+    public void record(long duration);
+    
+    /**
+     * Get the number of operations recorded.
+     * @return Count
+     */
+    public long count();
+    
+    /**
+     * Get the total duration of all operations recorded.
+     * @return Time in ns
+     */
+    public long totalTime();
+    
+    /**
+     * Get the greatest duration of any operation recorded.
+     * @return Time in ns
+     */
+    public long maxTime();
+}
@@ -36,6 +36,35 @@ abstract class AbstractBeliefQuery extends Event
     // Mochalog Query being asked
     public final Query queryToAsk;
     
+    // Manner in which beliefs satisfying query should
+    // be disclosed
+    private DisclosureMode disclosureMode;
+    // Maximum number of solutions to disclose at once
+    // under bounded and streamed disclosure modes
+    private int solutionLimit;
+    
+    // Solution limit applied to bounded and streamed
+    // disclosures if none specified
+    public static final int DEFAULT_SOLUTION_LIMIT = 64;
+    
+    // Manner in which answering agents should aggregate
+    // the beliefs of their inner context members
+    private AggregationMode aggregationMode;
+    // Time in ms answering agents may spend gathering the
+    // beliefs of their inner context members
+    private long aggregationTimeout;
+    
+    // Identifier correlating disclosures with the survey
+    // they answer (zero given the query is no survey)
+    private long correlationId;
+    
+    // Identifier of the trace the query belongs to (zero
+    // given the query is untraced)
+    private long traceId;
+    // Monotonic time in ns at which the traced query
+    // was emitted
+    private long emissionTime;
+    
     /**
      * Constructor.
      * @param queryToAsk Query intended to be asked
@@ -55,6 +84,179 @@ abstract class AbstractBeliefQuery extends Event
     public AbstractBeliefQuery(final Query queryToAsk) 
     {
         this.queryToAsk = queryToAsk;
+        
+        disclosureMode = DisclosureMode.FULL;
+        solutionLimit = DEFAULT_SOLUTION_LIMIT;
+        
+        aggregationMode = AggregationMode.NONE;
+    }
+    
+    /**
+     * Get the manner in which beliefs satisfying the query
+     * should be disclosed.
+     * @return Disclosure mode
+     */
+    public DisclosureMode getDisclosureMode()
+    {
+        return disclosureMode;
+    }
+    
+    /**
+     * Set the manner in which beliefs satisfying the query
+     * should be disclosed.
+     * @param disclosureMode Disclosure mode
+     */
+    public void setDisclosureMode(DisclosureMode disclosureMode)
+    {
+        this.disclosureMode = disclosureMode;
+    }
+    
+    /**
+     * Get the maximum number of solutions to disclose at once
+     * under bounded and streamed disclosure modes.
+     * @return Solution limit
+     */
+    public int getSolutionLimit()
+    {
+        return solutionLimit;
+    }
+    
+    /**
+     * Set the maximum number of solutions to disclose at once
+     * under bounded and streamed disclosure modes.
+     * @param solutionLimit Solution limit
+     */
+    public void setSolutionLimit(int solutionLimit)
+    {
+        if (solutionLimit <= 0)
+        {
+            throw new IllegalArgumentException("Solution limit must be positive.");
+        }
+        
+        this.solutionLimit = solutionLimit;
+    }
+    
+    /**
+     * Request only whether the query is believed be disclosed.
+     */
+    public void discloseTruthOnly()
+    {
+        setDisclosureMode(DisclosureMode.TRUTH_ONLY);
+    }
+    
+    /**
+     * Request at most the first given number of solutions
+     * be disclosed.
+     * @param limit Maximum number of solutions
+     */
+    public void discloseFirst(int limit)
+    {
+        setSolutionLimit(limit);
+        setDisclosureMode(DisclosureMode.BOUNDED);
+    }
+    
+    /**
+     * Request all solutions be disclosed over a sequence of
+     * disclosures of the given size.
+     * @param limit Maximum number of solutions per disclosure
+     */
+    public void discloseInChunksOf(int limit)
+    {
+        setSolutionLimit(limit);
+        setDisclosureMode(DisclosureMode.STREAMED);
+    }
+    
+    /**
+     * Get the manner in which answering agents should aggregate
+     * the beliefs of their inner context members.
+     * @return Aggregation mode
+     */
+    public AggregationMode getAggregationMode()
+    {
+        return aggregationMode;
+    }
+    
+    /**
+     * Get the time answering agents may spend gathering the
+     * beliefs of their inner context members.
+     * @return Time in ms
+     */
+    public long getAggregationTimeout()
+    {
+        return aggregationTimeout;
+    }
+    
+    /**
+     * Request answering agents aggregate the beliefs of their
+     * inner context members into their own disclosure.
+     * @param aggregationMode Aggregation mode
+     * @param timeout Time in ms answering agents may spend
+     * gathering inner context beliefs
+     */
+    public void aggregate(AggregationMode aggregationMode, long timeout)
+    {
+        if (aggregationMode != AggregationMode.NONE && timeout <= 0)
+        {
+            throw new IllegalArgumentException("Aggregation timeout must be positive.");
+        }
+        
+        this.aggregationMode = aggregationMode;
+        this.aggregationTimeout = timeout;
+    }
+    
+    /**
+     * Get the identifier correlating disclosures answering the
+     * query with the survey it was asked as.
+     * @return Correlation identifier, or zero given the
+     * query was not asked as a survey
+     */
+    public long getCorrelationId()
+    {
+        return correlationId;
+    }
+    
+    /**
+     * Set the identifier correlating disclosures answering the
+     * query with the survey it is asked as. Correlation does
+     * not affect query equality.
+     * @param correlationId Correlation identifier
+     */
+    public void setCorrelationId(long correlationId)
+    {
+        this.correlationId = correlationId;
+    }
+    
+    /**
+     * Get the identifier of the trace the query belongs to.
+     * @return Trace identifier, or zero given the
+     * query is untraced
+     */
+    public long getTraceId()
+    {
+        return traceId;
+    }
+    
+    /**
+     * Get the monotonic time at which the traced query was
+     * emitted, comparable only within the same process.
+     * @return Time in ns
+     */
+    public long getEmissionTime()
+    {
+        return emissionTime;
+    }
+    
+    /**
+     * Stamp the query as belonging to a trace, having been
+     * emitted at the given time. Tracing details do not
+     * affect query equality.
+     * @param traceId Trace identifier
+     * @param emissionTime Monotonic time in ns
+     */
+    public void trace(long traceId, long emissionTime)
+    {
+        this.traceId = traceId;
+        this.emissionTime = emissionTime;
     }
     
     @Override
@@ -65,7 +267,11 @@ abstract class AbstractBeliefQuery extends Event
             // Ensure query specifics are taken into account when
             // checking for event equality
             AbstractBeliefQuery beliefQuery = (AbstractBeliefQuery) obj;
-            return queryToAsk.equals(beliefQuery.queryToAsk);
+            return queryToAsk.equals(beliefQuery.queryToAsk) &&
+                disclosureMode == beliefQuery.disclosureMode &&
+                solutionLimit == beliefQuery.solutionLimit &&
+                aggregationMode == beliefQuery.aggregationMode &&
+                aggregationTimeout == beliefQuery.aggregationTimeout;
         }
         
         return false;
@@ -76,6 +282,7 @@ abstract class AbstractBeliefQuery extends Event
     {
         // Ensure query specifics are taken into account
         // when computing event hashcode
-        return Objects.hash(queryToAsk, super.hashCode());
+        return Objects.hash(queryToAsk, disclosureMode, solutionLimit, aggregationMode, 
+            aggregationTimeout, super.hashCode());
     }
 }
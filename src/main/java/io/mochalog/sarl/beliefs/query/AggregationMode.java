@@ -0,0 +1,40 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.query;
+
+/**
+ * Manner in which agents answering a query should aggregate
+ * the beliefs of the members of their inner context into
+ * their own disclosure.
+ */
+public enum AggregationMode
+{
+    /**
+     * Disclose only one's own beliefs.
+     */
+    NONE,
+    /**
+     * Disclose whether the query is believed by oneself
+     * and all inner context members.
+     */
+    ALL,
+    /**
+     * Disclose whether the query is believed by oneself
+     * or any inner context member.
+     */
+    ANY
+}
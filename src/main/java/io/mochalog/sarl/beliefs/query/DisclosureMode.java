@@ -0,0 +1,44 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.query;
+
+/**
+ * Manner in which beliefs satisfying a query should be
+ * disclosed by those answering it.
+ */
+public enum DisclosureMode
+{
+    /**
+     * Disclose all solutions in a single disclosure.
+     */
+    FULL,
+    /**
+     * Disclose only whether the query is believed,
+     * without any solutions.
+     */
+    TRUTH_ONLY,
+    /**
+     * Disclose at most a limited number of solutions
+     * in a single disclosure.
+     */
+    BOUNDED,
+    /**
+     * Disclose all solutions over a sequence of disclosures,
+     * each carrying a limited number of solutions.
+     */
+    STREAMED
+}
@@ -16,10 +16,13 @@
 
 package io.mochalog.sarl.beliefs.social;
 
+import io.mochalog.sarl.beliefs.metrics.BeliefMetrics;
 import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
 
 import io.sarl.lang.core.Event;
 
+import io.sarl.core.MemberLeft;
+
 import java.util.UUID;
 
 /**
@@ -58,12 +61,40 @@ public abstract class AbstractDisclosureListener implements DisclosureListener
     public final void receiveEvent(Event event)
     {
         // Delegate event handling to overhear() method
-        // given event type is BeliefDisclosure
+        // given event is a BeliefDisclosure (or partial
+        // disclosure thereof)
         final Class<? extends Event> eventType = event.getClass();
-        if (BeliefDisclosure.class.equals(eventType))
+        if (event instanceof BeliefDisclosure)
         {
             BeliefDisclosure disclosure = (BeliefDisclosure) event;
+            BeliefMetrics.get().getDisclosuresReceived().increment();
             onDisclosure(disclosure);
         }
+        // Batched disclosures are handled as if each
+        // were received separately
+        else if (event instanceof BeliefDisclosureBatch)
+        {
+            BeliefDisclosureBatch batch = (BeliefDisclosureBatch) event;
+            for (BeliefDisclosure disclosure : batch.disclosures)
+            {
+                BeliefMetrics.get().getDisclosuresReceived().increment();
+                onDisclosure(disclosure);
+            }
+        }
+        // Track participants leaving the space
+        else if (MemberLeft.class.equals(eventType))
+        {
+            MemberLeft memberLeft = (MemberLeft) event;
+            onParticipantDeparture(memberLeft.agentID);
+        }
+    }
+    
+    /**
+     * React to a participant departing the space in which
+     * the listener is registered.
+     * @param participant Identifier of departed participant
+     */
+    protected void onParticipantDeparture(UUID participant)
+    {
     }
 }
\ No newline at end of file
@@ -16,15 +16,23 @@
 
 package io.mochalog.sarl.beliefs.social;
 
+import io.mochalog.sarl.beliefs.metrics.BeliefMetrics;
+import io.mochalog.sarl.beliefs.query.AggregationMode;
 import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.query.BeliefQueryBatch;
 import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
 import io.mochalog.sarl.beliefs.social.analysis.contest.AgentContest;
 import io.mochalog.sarl.beliefs.social.analysis.contest.AgentContestBallot;
 import io.mochalog.sarl.beliefs.social.analysis.contest.AgentContestImpl;
+import io.mochalog.sarl.beliefs.social.analysis.poll.HierarchicalPollAggregator;
+import io.mochalog.sarl.beliefs.social.analysis.poll.QuorumEvaluator;
+import io.mochalog.sarl.beliefs.social.analysis.poll.ShardedSocialPoll;
 import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPoll;
 import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollBallot;
 import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollImpl;
+import io.mochalog.sarl.beliefs.trace.PollTracer;
 import io.mochalog.sarl.beliefs.util.EventSpaceUtils;
+import io.mochalog.sarl.beliefs.util.SpaceResolutionCache;
 
 import io.sarl.lang.core.Address;
 import io.sarl.lang.core.Agent;
@@ -34,7 +42,6 @@ import io.sarl.lang.core.Scope;
 import io.sarl.lang.core.Skill;
 
 import io.sarl.lang.util.ClearableReference;
-import io.sarl.lang.util.SynchronizedSet;
 
 import io.sarl.core.ExternalContextAccess;
 import io.sarl.util.Scopes;
@@ -62,6 +69,10 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
     // Buffered reference to built-in ExternalContextAccess skill
     private ClearableReference<Skill> bufferedExternalContextAccessSkill;
     
+    // Spaces queries have been received from, and the
+    // owner's address in each space emitted in
+    private final SpaceResolutionCache spaceCache = new SpaceResolutionCache();
+    
     /**
      * Constructor.
      * @param principal Principal for accessing restricted
@@ -105,6 +116,7 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
     {
         setSourceToMe(query, space);
         space.emit(query, scope);
+        BeliefMetrics.get().getQueriesAsked().increment();
     }
 
     @Override
@@ -112,6 +124,7 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
     {
         setSourceToMe(disclosure, space);
         space.emit(disclosure, scope);
+        BeliefMetrics.get().getDisclosuresSent().increment();
     }
 
     @Override
@@ -125,11 +138,62 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
             return false;
         }
         
-        EventSpace querySpace = EventSpaceUtils.getSpaceEventEmittedIn(query, getExternalContextAccessSkill());
+        final long answerTime = System.nanoTime();
+        final PollTracer tracer = PollTracer.getInstance();
+        // Time from emission of a traced query until its answer
+        // covers delivery and evaluation by the answering agent
+        tracer.span(query.getTraceId(), "receive", getID(), query.getEmissionTime());
+        
+        EventSpace querySpace = spaceCache.getSpace(querySource.getSpaceId(),
+            (spaceId) -> EventSpaceUtils.getSpaceEventEmittedIn(query, getExternalContextAccessSkill()));
         
-        setSourceToMe(disclosure, querySpace);
         // Tell the source agent the belief answer
         tellIn(querySpace, Scopes.addresses(querySource), disclosure);
+        BeliefMetrics.get().getQueriesAnswered().increment();
+        tracer.span(query.getTraceId(), "answer", getID(), answerTime);
+        
+        return true;
+    }
+    
+    @Override
+    public boolean answerBatch(BeliefQueryBatch batch, List<BeliefDisclosure> disclosures)
+    {
+        // Fetch sender data to allow reply
+        Address batchSource = batch.getSource();
+        if (batchSource == null)
+        {
+            // Unable to answer batch with no source specified
+            return false;
+        }
+        
+        final long answerTime = System.nanoTime();
+        final PollTracer tracer = PollTracer.getInstance();
+        for (BeliefQuery query : batch.queries)
+        {
+            tracer.span(query.getTraceId(), "receive", getID(), query.getEmissionTime());
+        }
+        
+        EventSpace batchSpace = spaceCache.getSpace(batchSource.getSpaceId(),
+            (spaceId) -> EventSpaceUtils.getSpaceEventEmittedIn(batch, getExternalContextAccessSkill()));
+        
+        // Disclosures are attributed individually, such that
+        // listeners may handle each as if received separately
+        for (BeliefDisclosure disclosure : disclosures)
+        {
+            setSourceToMe(disclosure, batchSpace);
+        }
+        
+        // Tell the source agent all belief answers at once
+        BeliefDisclosureBatch disclosureBatch = new BeliefDisclosureBatch(disclosures);
+        setSourceToMe(disclosureBatch, batchSpace);
+        batchSpace.emit(disclosureBatch, Scopes.addresses(batchSource));
+        
+        BeliefMetrics.get().getDisclosuresSent().increment(disclosures.size());
+        BeliefMetrics.get().getQueriesAnswered().increment(disclosures.size());
+        for (BeliefQuery query : batch.queries)
+        {
+            tracer.span(query.getTraceId(), "answer", getID(), answerTime);
+        }
         
         return true;
     }
@@ -147,10 +211,24 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
     {
         // Conduct poll, evaluating based on whether
         // query is believed by any participants
-        return conductPoll(
-            space, scope, query, timeout,
-            (e, r) -> isBelievedByAnyEvaluator(space, e, r), plan
-        );
+        return conductPoll(space, scope, query, timeout, new ExperimentEvaluator<SocialPollBallot>()
+        {
+            @Override
+            public void evaluate(SocialPollBallot poll, BeliefDisclosure response)
+            {
+                isBelievedByAnyEvaluator(space, poll, response);
+            }
+            
+            @Override
+            public void reevaluate(SocialPollBallot poll)
+            {
+                // No participant remains who could believe the query
+                if (poll.getOutstandingResponderCount() == 0)
+                {
+                    poll.finalisePollResult(false);
+                }
+            }
+        }, plan);
     }
     
     /**
@@ -183,10 +261,25 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
     {
         // Conduct poll, evaluating based on whether
         // all participants agree that a given query is either true or false
-        return conductPoll(
-            space, scope, query, timeout,
-            (e, r) -> allBelieveThatEvaluator(isTrue, e, r), plan
-        );
+        return conductPoll(space, scope, query, timeout, new ExperimentEvaluator<SocialPollBallot>()
+        {
+            @Override
+            public void evaluate(SocialPollBallot poll, BeliefDisclosure response)
+            {
+                allBelieveThatEvaluator(isTrue, poll, response);
+            }
+            
+            @Override
+            public void reevaluate(SocialPollBallot poll)
+            {
+                // Excused respondents abstain, such that agreement of
+                // all remaining respondents settles the poll
+                if (poll.getOutstandingResponderCount() == 0)
+                {
+                    poll.finalisePollResult(!poll.getPositiveResponders().isEmpty());
+                }
+            }
+        }, plan);
     }
     
     /**
@@ -206,9 +299,8 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
             poll.addPositiveResponse(response);
             
             // Poll is finished if we have received positive
-            // responses from all participants
-            SynchronizedSet<UUID> participants = poll.getParticipants();
-            if (poll.getPositiveResponders().equals(participants))
+            // responses from all surveyed participants
+            if (poll.getOutstandingResponderCount() == 0)
             {
                 poll.finalisePollResult(true);
             }
@@ -219,6 +311,20 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
         }
     }
     
+    @Override
+    public SocialPoll isBelievedByAtLeast(EventSpace space, Scope<Address> scope, BeliefQuery query, 
+        int quorum, long timeout, Procedure1<? super Boolean> plan)
+    {
+        return conductPoll(space, scope, query, timeout, QuorumEvaluator.atLeast(quorum, true), plan);
+    }
+    
+    @Override
+    public SocialPoll isBelievedByFraction(EventSpace space, Scope<Address> scope, BeliefQuery query, 
+        double fraction, long timeout, Procedure1<? super Boolean> plan)
+    {
+        return conductPoll(space, scope, query, timeout, QuorumEvaluator.fraction(fraction, true), plan);
+    }
+    
     @Override
     public SocialPoll conductPoll(EventSpace space, Scope<Address> scope, BeliefQuery query, 
         long timeout, ExperimentEvaluator<SocialPollBallot> evaluator, Procedure1<? super Boolean> onResult)
@@ -234,6 +340,49 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
             .execute();
     }
     
+    @Override
+    public ShardedSocialPoll conductShardedPoll(EventSpace space, Scope<Address> scope, 
+        BeliefQuery query, int shardCount, ShardedSocialPoll.MergePolicy mergePolicy, long timeout, 
+        ExperimentEvaluator<SocialPollBallot> evaluator, Procedure1<? super Boolean> onResult)
+    {
+        return new ShardedSocialPoll.Executor()
+            .setSpace(space)
+            .setAccessPrincipal(principal)
+            .addSurveys(query)
+            .setSurveyScope(scope)
+            .setShardCount(shardCount)
+            .setMergePolicy(mergePolicy)
+            .setEvaluator(evaluator)
+            .onPollResult(onResult)
+            .endExperimentAfter(timeout)
+            .execute();
+    }
+    
+    @Override
+    public SocialPoll conductHierarchicalPoll(EventSpace space, Scope<Address> scope, 
+        BeliefQuery query, AggregationMode mode, long timeout, Procedure1<? super Boolean> onResult)
+    {
+        if (timeout <= 0)
+        {
+            throw new IllegalArgumentException("Hierarchical polls require a timeout.");
+        }
+        
+        // Respondents are given half the poll duration to
+        // gather their inner contexts, leaving time to respond.
+        // Aggregation is set on a copy, such that the caller's
+        // query is left unchanged
+        BeliefQuery aggregatedQuery = new BeliefQuery(query.queryToAsk);
+        aggregatedQuery.setDisclosureMode(query.getDisclosureMode());
+        aggregatedQuery.setSolutionLimit(query.getSolutionLimit());
+        aggregatedQuery.aggregate(mode, Math.max(timeout / 2, 1));
+        
+        HierarchicalPollAggregator aggregator = new HierarchicalPollAggregator(mode);
+        SocialPoll poll = conductPoll(space, scope, aggregatedQuery, timeout, aggregator, onResult);
+        aggregator.attach(poll);
+        
+        return poll;
+    }
+    
     @Override
     public AgentContest organiseContest(EventSpace space, Scope<Address> scope, 
         BeliefQuery eligibilityQuery, List<Object> prize, long timeout, 
@@ -275,10 +424,16 @@ public class BasicBeliefSocialisation extends Skill implements SocialBeliefs
     // non-default space emission
     protected void setSourceToMe(Event event, EventSpace spaceToEmitIn)
     {
-        Address source = spaceToEmitIn.getAddress(getID());
+        Address source = spaceCache.getAddress(spaceToEmitIn, getID());
         event.setSource(source);
     }
     
+    @Override
+    public void forgetContext(UUID contextID)
+    {
+        spaceCache.forgetContext(contextID);
+    }
+    
     // Following skill buffering implementations are sourced and modified from
     // BIC skill implementations in Janus runtime available at
     // https://github.com/sarl/sarl/blob/master/sre/
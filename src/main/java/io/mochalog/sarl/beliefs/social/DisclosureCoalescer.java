@@ -0,0 +1,464 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social;
+
+import io.mochalog.sarl.beliefs.query.AggregationMode;
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.query.DisclosureMode;
+
+import io.mochalog.bridge.prolog.query.Query;
+import io.mochalog.bridge.prolog.query.QuerySolution;
+import io.mochalog.bridge.prolog.query.QuerySolutionList;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
+
+/**
+ * Coalescer of identical belief queries received by a single
+ * agent, such that each distinct query is evaluated once and its
+ * disclosure shared amongst all queriers.
+ * <p>
+ * Queries are identical given they ask the same query in the same
+ * disclosure and aggregation modes, regardless of their source.
+ * Each querier is answered through its own reply with its own
+ * copy of the solutions disclosed, and a querier failing to be
+ * answered does not prevent the others from being answered. Queries received
+ * while an identical query is being evaluated, or within the
+ * coalescing window following its evaluation, are answered with
+ * its disclosure. Beliefs changed within the window are therefore
+ * not reflected in coalesced disclosures.
+ */
+public class DisclosureCoalescer
+{
+    // Default time in ms for which disclosures remain shareable
+    // following evaluation
+    public static final long DEFAULT_WINDOW = 50;
+    
+    // Time in ns for which disclosures remain shareable
+    private final long window;
+    // Evaluations in progress or within the coalescing window
+    private final Map<Key, Evaluation> evaluations;
+    
+    // Number of queries evaluated, and of queries answered
+    // with the disclosure of another
+    private final AtomicLong evaluationCount;
+    private final AtomicLong coalescedCount;
+    
+    /**
+     * Constructor.
+     */
+    public DisclosureCoalescer()
+    {
+        this(DEFAULT_WINDOW);
+    }
+    
+    /**
+     * Constructor.
+     * @param window Time in ms for which disclosures remain
+     * shareable following evaluation (0 to share only amongst
+     * queries received during evaluation)
+     */
+    public DisclosureCoalescer(long window)
+    {
+        if (window < 0)
+        {
+            throw new IllegalArgumentException("Coalescing window must not be negative.");
+        }
+        
+        this.window = TimeUnit.MILLISECONDS.toNanos(window);
+        evaluations = new ConcurrentHashMap<Key, Evaluation>();
+        
+        evaluationCount = new AtomicLong();
+        coalescedCount = new AtomicLong();
+    }
+    
+    /**
+     * Respond to a query, evaluating it only if no identical
+     * query is being evaluated or was evaluated within the
+     * coalescing window.
+     * @param query Query to respond to
+     * @param evaluator Evaluation of query into a disclosure
+     * @param reply Procedure answering a query with a disclosure
+     */
+    public void respond(BeliefQuery query, Function1<? super BeliefQuery, ? extends BeliefDisclosure> evaluator,
+        Procedure2<? super BeliefQuery, ? super BeliefDisclosure> reply)
+    {
+        final Key key = new Key(query);
+        final long now = System.nanoTime();
+        
+        final Follower follower = new Follower(query, evaluator, reply);
+        Evaluation evaluation = evaluations.get(key);
+        if (evaluation != null && evaluation.join(follower, now))
+        {
+            coalescedCount.incrementAndGet();
+            return;
+        }
+        
+        // Query becomes the leader of a new evaluation, unless
+        // another querier has become leader in the meantime
+        final Evaluation leader = new Evaluation();
+        evaluation = evaluations.merge(key, leader, 
+            (current, candidate) -> current.isExpired(now) ? candidate : current);
+        if (evaluation != leader)
+        {
+            if (evaluation.join(follower, now))
+            {
+                coalescedCount.incrementAndGet();
+                return;
+            }
+            
+            // Evaluation expired concurrently, so answer
+            // without coalescing
+            evaluations.replace(key, evaluation, leader);
+        }
+        
+        purgeExpired(now);
+        evaluationCount.incrementAndGet();
+        
+        BeliefDisclosure evaluated = null;
+        RuntimeException failure = null;
+        final List<Follower> followers;
+        try
+        {
+            evaluated = evaluator.apply(query);
+        }
+        catch (RuntimeException e)
+        {
+            failure = e;
+        }
+        finally
+        {
+            followers = leader.complete(evaluated, System.nanoTime());
+            if (evaluated == null || window == 0)
+            {
+                evaluations.remove(key, leader);
+            }
+        }
+        
+        // Followers are answered with the leader disclosure,
+        // or left to evaluate for themselves should it fail
+        final BeliefDisclosure disclosure = evaluated;
+        if (disclosure != null)
+        {
+            failure = answer(() -> reply.apply(query, disclosure), failure);
+            for (Follower awaiting : followers)
+            {
+                failure = answer(() -> awaiting.answer(disclosure), failure);
+            }
+        }
+        else
+        {
+            for (Follower awaiting : followers)
+            {
+                failure = answer(() -> respond(awaiting.query, awaiting.evaluator, awaiting.reply), 
+                    failure);
+            }
+        }
+        
+        // Failures are raised once all queriers were answered
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+    
+    /**
+     * Answer a single querier, such that a failure to answer
+     * does not prevent others from being answered.
+     * @param answer Procedure answering the querier
+     * @param failure First failure to answer a querier (null
+     * if none)
+     * @return First failure to answer a querier, with any
+     * later failure suppressed by it
+     */
+    private static RuntimeException answer(Runnable answer, RuntimeException failure)
+    {
+        try
+        {
+            answer.run();
+        }
+        catch (RuntimeException e)
+        {
+            if (failure == null)
+            {
+                return e;
+            }
+            
+            failure.addSuppressed(e);
+        }
+        
+        return failure;
+    }
+    
+    /**
+     * Discard evaluations which are no longer shareable.
+     * @param now Current time in ns
+     */
+    private void purgeExpired(long now)
+    {
+        Iterator<Evaluation> iterator = evaluations.values().iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().isExpired(now))
+            {
+                iterator.remove();
+            }
+        }
+    }
+    
+    /**
+     * Readdress a disclosure to a different querier.
+     * @param disclosure Disclosure to readdress
+     * @param query Query of the querier
+     * @return Disclosure answering given query, holding a
+     * copy of the solutions of the original
+     */
+    static BeliefDisclosure readdress(BeliefDisclosure disclosure, BeliefQuery query)
+    {
+        if (disclosure instanceof PartialBeliefDisclosure)
+        {
+            PartialBeliefDisclosure partial = (PartialBeliefDisclosure) disclosure;
+            List<QuerySolution> partialSolutions = partial.partialSolutions == null ? null :
+                new ArrayList<QuerySolution>(partial.partialSolutions);
+            return new PartialBeliefDisclosure(query, partial.isBelieved, partialSolutions,
+                partial.sequence, partial.hasMore);
+        }
+        else if (disclosure.solutions != null)
+        {
+            // Queriers may mutate the solutions they are
+            // answered with, so each is given a copy
+            QuerySolutionList solutions = new QuerySolutionList();
+            solutions.addAll(disclosure.solutions);
+            return new BeliefDisclosure(query, solutions);
+        }
+        
+        return new BeliefDisclosure(query, disclosure.isBelieved);
+    }
+    
+    /**
+     * Get the time for which disclosures remain shareable
+     * following evaluation.
+     * @return Time in ms
+     */
+    public long getWindow()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(window);
+    }
+    
+    /**
+     * Get the number of queries evaluated.
+     * @return Evaluation count
+     */
+    public long getEvaluationCount()
+    {
+        return evaluationCount.get();
+    }
+    
+    /**
+     * Get the number of queries answered with the disclosure
+     * of an identical query, each saving an evaluation.
+     * @return Saved evaluation count
+     */
+    public long getCoalescedCount()
+    {
+        return coalescedCount.get();
+    }
+    
+    /**
+     * Identity of a query, irrespective of its source.
+     */
+    private static final class Key
+    {
+        // Query asked, and the manner of its disclosure
+        private final Query query;
+        private final DisclosureMode disclosureMode;
+        private final int solutionLimit;
+        // Manner in which the beliefs of inner context
+        // members are aggregated
+        private final AggregationMode aggregationMode;
+        private final long aggregationTimeout;
+        
+        /**
+         * Constructor.
+         * @param query Query to identify
+         */
+        private Key(BeliefQuery query)
+        {
+            this.query = query.queryToAsk;
+            disclosureMode = query.getDisclosureMode();
+            solutionLimit = query.getSolutionLimit();
+            
+            aggregationMode = query.getAggregationMode();
+            aggregationTimeout = query.getAggregationTimeout();
+        }
+        
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            
+            Key key = (Key) obj;
+            return query.equals(key.query) && disclosureMode == key.disclosureMode &&
+                solutionLimit == key.solutionLimit && aggregationMode == key.aggregationMode &&
+                aggregationTimeout == key.aggregationTimeout;
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(query, disclosureMode, solutionLimit, 
+                aggregationMode, aggregationTimeout);
+        }
+    }
+    
+    /**
+     * Query awaiting the outcome of an identical query's
+     * evaluation, alongside the means of answering it.
+     */
+    private static final class Follower
+    {
+        // Query awaiting an answer
+        private final BeliefQuery query;
+        // Evaluation of query into a disclosure, should
+        // the shared evaluation fail
+        private final Function1<? super BeliefQuery, ? extends BeliefDisclosure> evaluator;
+        // Procedure answering the query with a disclosure
+        private final Procedure2<? super BeliefQuery, ? super BeliefDisclosure> reply;
+        
+        /**
+         * Constructor.
+         * @param query Query awaiting an answer
+         * @param evaluator Evaluation of query into a disclosure
+         * @param reply Procedure answering a query with
+         * a disclosure
+         */
+        private Follower(BeliefQuery query, 
+            Function1<? super BeliefQuery, ? extends BeliefDisclosure> evaluator,
+            Procedure2<? super BeliefQuery, ? super BeliefDisclosure> reply)
+        {
+            this.query = query;
+            this.evaluator = evaluator;
+            this.reply = reply;
+        }
+        
+        /**
+         * Answer the query with a shared disclosure.
+         * @param disclosure Disclosure to share
+         */
+        private void answer(BeliefDisclosure disclosure)
+        {
+            reply.apply(query, readdress(disclosure, query));
+        }
+    }
+    
+    /**
+     * Single evaluation of a query, shared amongst
+     * identical queries.
+     */
+    private final class Evaluation
+    {
+        // Queries awaiting the outcome of the evaluation
+        private List<Follower> followers;
+        // Disclosure produced by the evaluation (null
+        // until evaluation completes)
+        private BeliefDisclosure disclosure;
+        // Time in ns at which the evaluation completed
+        private long completedAt;
+        // Whether evaluation has completed
+        private boolean completed;
+        
+        /**
+         * Constructor.
+         */
+        private Evaluation()
+        {
+            followers = new ArrayList<Follower>();
+        }
+        
+        /**
+         * Share the evaluation with an identical query.
+         * @param follower Identical query, answered through
+         * its own reply
+         * @param now Current time in ns
+         * @return True if query will be or has been answered
+         * by the evaluation, false otherwise.
+         */
+        private boolean join(Follower follower, long now)
+        {
+            final BeliefDisclosure shared;
+            synchronized (this)
+            {
+                if (!completed)
+                {
+                    // Answered by the leader upon completion
+                    followers.add(follower);
+                    return true;
+                }
+                
+                if (disclosure == null || isExpired(now))
+                {
+                    return false;
+                }
+                
+                shared = disclosure;
+            }
+            
+            follower.answer(shared);
+            return true;
+        }
+        
+        /**
+         * Complete the evaluation.
+         * @param disclosure Disclosure produced, or null
+         * if evaluation failed
+         * @param now Current time in ns
+         * @return Queries awaiting the outcome
+         */
+        private synchronized List<Follower> complete(BeliefDisclosure disclosure, long now)
+        {
+            this.disclosure = disclosure;
+            completedAt = now;
+            completed = true;
+            
+            final List<Follower> awaiting = followers;
+            followers = null;
+            return awaiting;
+        }
+        
+        /**
+         * Check if the evaluation is no longer shareable.
+         * @param now Current time in ns
+         * @return True if expired, false otherwise.
+         */
+        private synchronized boolean isExpired(long now)
+        {
+            return completed && (disclosure == null || now - completedAt > window);
+        }
+    }
+}
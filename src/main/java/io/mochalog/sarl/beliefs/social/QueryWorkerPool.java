@@ -0,0 +1,230 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of worker threads on which agents evaluate
+ * queries received from others, away from the threads
+ * handling their events.
+ * <p>
+ * Evaluations are shed rather than queued once either the
+ * pool queue is full or the submitting agent has reached
+ * its own limit of concurrent evaluations.
+ */
+public class QueryWorkerPool
+{
+    // Default number of worker threads
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    // Default number of evaluations awaiting a worker
+    // before further evaluations are shed
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    // Default number of evaluations a single agent may
+    // have pending at once
+    public static final int DEFAULT_AGENT_CONCURRENCY = 4;
+    
+    // Process-wide pool instance
+    private static final QueryWorkerPool INSTANCE =
+        new QueryWorkerPool(DEFAULT_POOL_SIZE, DEFAULT_QUEUE_CAPACITY);
+    
+    // Underlying executor of evaluations
+    private final ThreadPoolExecutor executor;
+    
+    // Evaluations run and shed
+    private final AtomicLong completedEvaluations;
+    private final AtomicLong shedEvaluations;
+    
+    /**
+     * Constructor.
+     * @param poolSize Number of worker threads
+     * @param queueCapacity Number of evaluations awaiting
+     * a worker before further evaluations are shed
+     */
+    public QueryWorkerPool(int poolSize, int queueCapacity)
+    {
+        if (poolSize <= 0 || queueCapacity <= 0)
+        {
+            throw new IllegalArgumentException("Pool size and queue capacity must be positive.");
+        }
+        
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(queueCapacity), new WorkerThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        
+        completedEvaluations = new AtomicLong();
+        shedEvaluations = new AtomicLong();
+    }
+    
+    /**
+     * Get the pool instance shared by the process.
+     * @return Shared pool
+     */
+    public static QueryWorkerPool getInstance()
+    {
+        return INSTANCE;
+    }
+    
+    /**
+     * Create the permits bounding the evaluations a single
+     * agent may have pending at once.
+     * @param concurrency Number of concurrent evaluations
+     * @return Agent permits
+     */
+    public static Semaphore newAgentPermits(int concurrency)
+    {
+        if (concurrency <= 0)
+        {
+            throw new IllegalArgumentException("Agent concurrency must be positive.");
+        }
+        
+        return new Semaphore(concurrency);
+    }
+    
+    /**
+     * Submit an evaluation to be run by a worker, given
+     * both the agent and the pool have capacity for it.
+     * @param permits Permits of the submitting agent
+     * @param evaluation Evaluation to run
+     * @return True if evaluation was accepted, false if it
+     * was shed.
+     */
+    public boolean trySubmit(Semaphore permits, Runnable evaluation)
+    {
+        if (!permits.tryAcquire())
+        {
+            shedEvaluations.incrementAndGet();
+            return false;
+        }
+        
+        try
+        {
+            executor.execute(() ->
+            {
+                try
+                {
+                    evaluation.run();
+                }
+                finally
+                {
+                    permits.release();
+                    completedEvaluations.incrementAndGet();
+                }
+            });
+            
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            // Pool queue is full
+            permits.release();
+            shedEvaluations.incrementAndGet();
+            return false;
+        }
+    }
+    
+    /**
+     * Set the number of worker threads.
+     * @param poolSize Number of threads
+     */
+    public void setPoolSize(int poolSize)
+    {
+        // Maximum size must never fall below core size
+        if (poolSize > executor.getMaximumPoolSize())
+        {
+            executor.setMaximumPoolSize(poolSize);
+            executor.setCorePoolSize(poolSize);
+        }
+        else
+        {
+            executor.setCorePoolSize(poolSize);
+            executor.setMaximumPoolSize(poolSize);
+        }
+    }
+    
+    /**
+     * Get the number of worker threads.
+     * @return Number of threads
+     */
+    public int getPoolSize()
+    {
+        return executor.getCorePoolSize();
+    }
+    
+    /**
+     * Get the number of evaluations awaiting a worker.
+     * @return Queue depth
+     */
+    public int getQueueDepth()
+    {
+        return executor.getQueue().size();
+    }
+    
+    /**
+     * Get the number of evaluations currently being run.
+     * @return Active evaluation count
+     */
+    public int getActiveCount()
+    {
+        return executor.getActiveCount();
+    }
+    
+    /**
+     * Get the number of evaluations run to completion.
+     * @return Completed evaluation count
+     */
+    public long getCompletedCount()
+    {
+        return completedEvaluations.get();
+    }
+    
+    /**
+     * Get the number of evaluations shed for lack
+     * of capacity.
+     * @return Shed evaluation count
+     */
+    public long getShedCount()
+    {
+        return shedEvaluations.get();
+    }
+    
+    /**
+     * Factory producing daemon threads for the pool, such
+     * that pending evaluations never keep the process alive.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory
+    {
+        // Number of threads created so far
+        private final AtomicInteger threadCount = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable,
+                "query-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
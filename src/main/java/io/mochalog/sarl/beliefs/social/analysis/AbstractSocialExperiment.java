@@ -17,10 +17,16 @@
 package io.mochalog.sarl.beliefs.social.analysis;
 
 import io.mochalog.sarl.beliefs.exceptions.ExecutionFailedException;
+import io.mochalog.sarl.beliefs.metrics.BeliefMetrics;
 import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.query.BeliefQueryBatch;
 import io.mochalog.sarl.beliefs.social.AbstractDisclosureListener;
 import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
-import io.mochalog.sarl.beliefs.util.EventSpaceUtils;
+import io.mochalog.sarl.beliefs.social.BusyBeliefDisclosure;
+import io.mochalog.sarl.beliefs.trace.PollTracer;
+import io.mochalog.sarl.beliefs.util.ConcurrentSynchronizedSet;
+import io.mochalog.sarl.beliefs.util.ParticipantIndex;
+import io.mochalog.sarl.beliefs.util.ResponderSet;
 
 import io.sarl.lang.core.Address;
 import io.sarl.lang.core.EventSpace;
@@ -28,18 +34,26 @@ import io.sarl.lang.core.Scope;
 
 import io.sarl.lang.util.SynchronizedSet;
 
-import io.sarl.util.Collections3;
 import io.sarl.util.Scopes;
 
 import java.security.Principal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Abstract implementation of social experiment interface.
@@ -48,18 +62,63 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
     implements SocialExperimentBallot
 {
     // Flag indicating whether experiment is in progress
-    private volatile boolean inProgress;
+    private final AtomicBoolean inProgress;
 
     // Space in which experiment is taking place
     private final EventSpace space;
+    // Router dispatching disclosures of the space to the
+    // experiment (set prior to the experiment starting)
+    private DisclosureRouter router;
 
     // Surveys active during experiment progression
-    private final SynchronizedSet<BeliefQuery> activeSurveys;
+    private final ConcurrentSynchronizedSet<BeliefQuery> activeSurveys;
+    
+    // Dense index of the participants first surveyed, over
+    // which responder sets are held as bitmaps
+    private final AtomicReference<ParticipantIndex> participantIndex;
     
     // Query responses deemed to support and oppose the experiment
     // hypothesis by the evaluator
-    private final SynchronizedSet<UUID> positiveResponders;
-    private final SynchronizedSet<UUID> negativeResponders;
+    private final ResponderSet positiveResponders;
+    private final ResponderSet negativeResponders;
+    
+    // Participants surveyed during the experiment, and those
+    // of which a response is still awaited
+    private final ResponderSet expectedRespondents;
+    private final ResponderSet pendingRespondents;
+    
+    // Read-only views of experiment state, shared with callers
+    private final SynchronizedSet<BeliefQuery> activeSurveysView;
+    private final SynchronizedSet<UUID> positiveRespondersView;
+    private final SynchronizedSet<UUID> negativeRespondersView;
+    private final SynchronizedSet<UUID> expectedRespondentsView;
+    
+    // Last correlation identifier assigned to a survey
+    private static final AtomicLong lastCorrelationId = new AtomicLong();
+    
+    // Time in ns at which each survey was emitted,
+    // by survey correlation identifier
+    private final Map<Long, Long> surveyTimes;
+    // Tracker of response latencies within the space (set
+    // prior to the experiment starting)
+    private volatile ResponseLatencyTracker latencyTracker;
+    
+    // Whether surveys asked together are emitted as
+    // a single query batch
+    private volatile boolean batchSurveys;
+    // Whether respondents too busy to evaluate a survey
+    // abstain, rather than remaining outstanding
+    private volatile boolean busyAbstention;
+    
+    // Pending experiment timeout (if any)
+    private volatile ScheduledFuture<?> timeout;
+    
+    // Time in ns at which the experiment started
+    private volatile long startTime;
+    // Identifier of the trace of the experiment lifecycle
+    private volatile long traceId;
+    // Statistics of the experiment, completed on its end
+    private final CompletableFuture<ExperimentStatistics> statistics;
 
     /**
      * Abstract implementation of a social experiment
@@ -83,16 +142,42 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
         // Evaluation function to apply to the experiment
         private ExperimentEvaluator<? super S> evaluator;
         
-        // Number of scheduling threads to queue
-        private static final int NUM_EXPERIMENT_SCHEDULING_THREADS = 20;
+        // Scheduler used by executors not otherwise configured
+        private static volatile ExperimentScheduler defaultScheduler = 
+            SharedExperimentScheduler.getInstance();
         // Scheduler of experiment timeouts
-        private final ScheduledThreadPoolExecutor scheduler;
+        private ExperimentScheduler scheduler;
         
         // Default timeout - Represents uncapped experiment duration
         public static final long DEFAULT_TIMEOUT = -1;
+        // Automatic timeout - Represents experiment duration derived
+        // from the response latencies observed in the space
+        public static final long AUTO_TIMEOUT = -2;
         // Time in ms to cap experiments at
         private long experimentTimeout;
         
+        // Default fraction of responses awaited by automatic
+        // timeouts, and the bounds in ms of such timeouts
+        public static final double DEFAULT_AUTO_TIMEOUT_QUANTILE = 0.99;
+        public static final long DEFAULT_AUTO_TIMEOUT_MINIMUM = 50;
+        public static final long DEFAULT_AUTO_TIMEOUT_MAXIMUM = 2000;
+        // Fraction of responses awaited by automatic timeouts
+        private double autoTimeoutQuantile;
+        // Bounds in ms of automatic timeouts
+        private long autoTimeoutMinimum;
+        private long autoTimeoutMaximum;
+        
+        // Identifier of the trace to record the experiment
+        // under (untraced for a new trace)
+        private long traceId;
+        
+        // Whether surveys asked together are emitted as
+        // a single query batch
+        private boolean batchSurveys;
+        // Whether respondents too busy to evaluate a survey
+        // abstain, rather than remaining outstanding
+        private boolean busyAbstention;
+        
         /**
          * Constructor.
          */
@@ -102,8 +187,16 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
             // Default survey scope to all experiment participants
             surveyScope = Scopes.<Address>allParticipants();
             
-            scheduler = new ScheduledThreadPoolExecutor(NUM_EXPERIMENT_SCHEDULING_THREADS);
+            scheduler = defaultScheduler;
             experimentTimeout = DEFAULT_TIMEOUT;
+            
+            autoTimeoutQuantile = DEFAULT_AUTO_TIMEOUT_QUANTILE;
+            autoTimeoutMinimum = DEFAULT_AUTO_TIMEOUT_MINIMUM;
+            autoTimeoutMaximum = DEFAULT_AUTO_TIMEOUT_MAXIMUM;
+            
+            traceId = PollTracer.UNTRACED;
+            batchSurveys = false;
+            busyAbstention = false;
         }
         
         @Override
@@ -194,6 +287,149 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
             return self();
         }
         
+        /**
+         * Cap the experiment at the latency within which a given
+         * fraction of recent responses in the space were received,
+         * such that the experiment does not await stragglers. Given
+         * too few responses have been observed, the maximum is used.
+         * @param quantile Fraction of responses to await, in the
+         * interval [0, 1]
+         * @param minimum Minimum timeout in ms
+         * @param maximum Maximum timeout in ms
+         * @return Executor instance
+         */
+        public E endExperimentAfterQuantile(double quantile, long minimum, long maximum)
+        {
+            if (quantile < 0 || quantile > 1 || minimum < 0 || maximum < minimum)
+            {
+                throw new IllegalArgumentException("Invalid automatic timeout bounds.");
+            }
+            
+            autoTimeoutQuantile = quantile;
+            autoTimeoutMinimum = minimum;
+            autoTimeoutMaximum = maximum;
+            
+            return endExperimentAfter(AUTO_TIMEOUT);
+        }
+        
+        /**
+         * Record the lifecycle of the experiment under an existing
+         * trace, such as that of an enclosing experiment. Otherwise,
+         * a new trace is begun given tracing is enabled.
+         * @param traceId Trace identifier
+         * @return Executor instance
+         */
+        public E setTraceId(long traceId)
+        {
+            this.traceId = traceId;
+            return self();
+        }
+        
+        /**
+         * Set whether surveys asked together are emitted as a single
+         * query batch, answered by each participant with a single
+         * disclosure batch. Batching should only be enabled given
+         * all participants handle query batches.
+         * @param batchSurveys Whether to batch surveys (defaults
+         * to false)
+         * @return Executor instance
+         */
+        public E setSurveyBatching(boolean batchSurveys)
+        {
+            this.batchSurveys = batchSurveys;
+            return self();
+        }
+        
+        /**
+         * Set whether respondents too busy to evaluate a survey
+         * abstain. Abstaining respondents are excused from responding,
+         * such that the experiment may be decided by the remaining
+         * respondents alone. Otherwise busy respondents remain
+         * outstanding, as if they had not responded.
+         * @param busyAbstention Whether busy respondents abstain
+         * (defaults to false)
+         * @return Executor instance
+         */
+        public E setBusyAbstention(boolean busyAbstention)
+        {
+            this.busyAbstention = busyAbstention;
+            return self();
+        }
+        
+        /**
+         * Copy the space, access principal, timeout, scheduler,
+         * survey batching and busy abstention settings of another
+         * executor, such that
+         * related experiments may be executed alike. Surveys, survey
+         * scope, evaluation function and trace are not copied.
+         * @param executor Executor to copy settings of
+         * @return Executor instance
+         */
+        public E copySettings(Executor<?, ?> executor)
+        {
+            space = executor.space;
+            principal = executor.principal;
+            
+            scheduler = executor.scheduler;
+            experimentTimeout = executor.experimentTimeout;
+            autoTimeoutQuantile = executor.autoTimeoutQuantile;
+            autoTimeoutMinimum = executor.autoTimeoutMinimum;
+            autoTimeoutMaximum = executor.autoTimeoutMaximum;
+            
+            batchSurveys = executor.batchSurveys;
+            busyAbstention = executor.busyAbstention;
+            return self();
+        }
+        
+        /**
+         * Set the scheduler used by all executors which have not
+         * been explicitly assigned one.
+         * @param scheduler Experiment scheduler
+         */
+        public static void setDefaultScheduler(ExperimentScheduler scheduler)
+        {
+            if (scheduler != null)
+            {
+                defaultScheduler = scheduler;
+            }
+        }
+        
+        /**
+         * Get the scheduler used by all executors which have not
+         * been explicitly assigned one.
+         * @return Experiment scheduler
+         */
+        public static ExperimentScheduler getDefaultScheduler()
+        {
+            return defaultScheduler;
+        }
+        
+        /**
+         * Set the scheduler with which experiment timeouts
+         * will be registered.
+         * @param scheduler Experiment scheduler
+         * @return Executor instance
+         */
+        public E setScheduler(ExperimentScheduler scheduler)
+        {
+            if (scheduler != null)
+            {
+                this.scheduler = scheduler;
+            }
+            
+            return self();
+        }
+        
+        /**
+         * Get the scheduler with which experiment timeouts
+         * will be registered.
+         * @return Experiment scheduler
+         */
+        public ExperimentScheduler getScheduler()
+        {
+            return scheduler;
+        }
+        
         /**
          * Executor procedure to invoke if experiment
          * elapses given timeout duration.
@@ -208,23 +444,52 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
             // and a space to be performed in
             if (space != null && evaluator != null)
             {
+                final PollTracer tracer = PollTracer.getInstance();
+                final long trace = traceId != PollTracer.UNTRACED ? traceId : tracer.newTrace();
+                final long executionTime = System.nanoTime();
+                
                 S experiment = build(space, evaluator);
-                // Attempt to start experiment in the given event space
-                if (experiment != null && EventSpaceUtils.registerInEventSpace(experiment, space, principal))
+                // Attempt to start experiment in the given event space,
+                // attaching it to the disclosure router of the space
+                DisclosureRouter router = experiment == null ? null : 
+                    DisclosureRouter.attach(experiment, space, principal);
+                if (router != null)
                 {
+                    ((AbstractSocialExperiment) experiment).router = router;
+                    ((AbstractSocialExperiment) experiment).latencyTracker = router.getLatencyTracker();
+                    tracer.span(trace, "register", experiment.getID(), executionTime);
+                    ((AbstractSocialExperiment) experiment).traceId = trace;
+                    ((AbstractSocialExperiment) experiment).batchSurveys = batchSurveys;
+                    ((AbstractSocialExperiment) experiment).busyAbstention = busyAbstention;
+                    
                     // Signal that experiment has started
-                    ((AbstractSocialExperiment) experiment).inProgress = true;
+                    BeliefMetrics.experimentStarted(experiment);
+                    BeliefMetrics.get().getExperimentCounter(experiment.getMetricName(), 
+                        BeliefMetrics.EXPERIMENT_STARTED).increment();
+                    ((AbstractSocialExperiment) experiment).startTime = System.nanoTime();
+                    ((AbstractSocialExperiment) experiment).inProgress.set(true);
                     // Ask each survey query in experiment space
                     experiment.surveyParticipants(surveys, surveyScope);
                     
+                    // Automatic timeouts are resolved from the latencies
+                    // observed in the space prior to this experiment
+                    long timeout = experimentTimeout;
+                    if (timeout == AUTO_TIMEOUT)
+                    {
+                        timeout = ((AbstractSocialExperiment) experiment).latencyTracker
+                            .getTimeout(autoTimeoutQuantile, autoTimeoutMinimum, autoTimeoutMaximum);
+                    }
+                    
                     // Schedule an experiment timeout (after time elapsed, kill
                     // the experiment and produce a negative result
-                    if (experimentTimeout != DEFAULT_TIMEOUT)
+                    if (timeout != DEFAULT_TIMEOUT)
                     {
-                        scheduler.schedule(() -> onTimeout(experiment), experimentTimeout, 
-                            TimeUnit.MILLISECONDS);
+                        ((AbstractSocialExperiment) experiment).setTimeout(
+                            scheduler.schedule(() -> timeOut(experiment), timeout)
+                        );
                     }
                     
+                    tracer.span(trace, "execute", experiment.getID(), executionTime);
                     return experiment;
                 }
             }
@@ -233,6 +498,22 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
                 "conducted in space (" + space.getSpaceID() + "). Access restricted.");
         }
         
+        /**
+         * End an experiment which has elapsed its timeout
+         * duration, given it is still in progress. Experiments
+         * ended on timing out are counted as timed out, rather
+         * than completed, by their executor.
+         * @param experiment Experiment instance to use
+         */
+        private void timeOut(S experiment)
+        {
+            if (experiment.inProgress())
+            {
+                ((AbstractSocialExperiment) experiment).recordCensoredLatencies();
+                onTimeout(experiment);
+            }
+        }
+        
         /**
          * Build a new experiment to be executed by the Executor.
          * @param space Space to conduct experiment in
@@ -256,91 +537,457 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
     protected AbstractSocialExperiment(EventSpace space)
     {
         this.space = space;
+        inProgress = new AtomicBoolean();
 
-        activeSurveys = Collections3.synchronizedSet(new HashSet<BeliefQuery>(), new Object());
+        activeSurveys = new ConcurrentSynchronizedSet<BeliefQuery>();
+        
+        participantIndex = new AtomicReference<ParticipantIndex>();
+        
+        positiveResponders = new ResponderSet();
+        negativeResponders = new ResponderSet();
+        
+        expectedRespondents = new ResponderSet();
+        pendingRespondents = new ResponderSet();
         
-        positiveResponders = Collections3.synchronizedSet(new HashSet<UUID>(), new Object());
-        negativeResponders = Collections3.synchronizedSet(new HashSet<UUID>(), new Object());
+        activeSurveysView = activeSurveys.unmodifiableView();
+        positiveRespondersView = positiveResponders.unmodifiableView();
+        negativeRespondersView = negativeResponders.unmodifiableView();
+        expectedRespondentsView = expectedRespondents.unmodifiableView();
+        
+        statistics = new CompletableFuture<ExperimentStatistics>();
+        
+        surveyTimes = new ConcurrentHashMap<Long, Long>();
     }
     
     @Override
     public boolean inProgress()
     {
-        return inProgress;
+        return inProgress.get();
     }
     
     @Override
-    public synchronized boolean surveyParticipants(BeliefQuery... queries)
+    public boolean surveyParticipants(BeliefQuery... queries)
     {
         return surveyParticipants(Scopes.<Address>allParticipants(), queries);
     }
     
     @Override
-    public synchronized boolean surveyParticipants(Scope<Address> scope, BeliefQuery... queries)
+    public boolean surveyParticipants(Scope<Address> scope, BeliefQuery... queries)
     {
         return surveyParticipants(Arrays.asList(queries), scope);
     }
     
     @Override
-    public synchronized boolean surveyParticipants(Collection<BeliefQuery> queries, 
+    public boolean surveyParticipants(Collection<BeliefQuery> queries, 
         Scope<Address> scope)
     {
         if (inProgress())
         {
-            // Remove duplicate surveys
-            queries.removeAll(activeSurveys);
+            // Set the router of the space to survey source, and
+            // route responses to the ballot
+            Address sourceAddress = router.getAddress();
             
+            // Mark new surveys as active, discarding duplicates. Each
+            // survey is stamped on a copy of its query, such that the
+            // caller's query may be asked again, or by other experiments
+            List<BeliefQuery> newSurveys = new ArrayList<BeliefQuery>(queries.size());
             for (BeliefQuery query : queries)
             {
-                // Set social experiment to survey source to 
-                // ensure responses are directed to ballot
-                Address sourceAddress = space.getAddress(getID());
-                query.setSource(sourceAddress);
-                space.emit(query, scope);
+                BeliefQuery survey = copySurvey(query);
+                survey.setSource(sourceAddress);
+                if (activeSurveys.add(survey))
+                {
+                    // Disclosures are matched to their survey by
+                    // correlation alone
+                    survey.setCorrelationId(lastCorrelationId.incrementAndGet());
+                    router.route(survey, this);
+                    newSurveys.add(survey);
+                }
+            }
+            
+            // Routes added while the experiment ended would
+            // otherwise outlive the experiment
+            if (!inProgress())
+            {
+                for (BeliefQuery query : newSurveys)
+                {
+                    router.unroute(query, this);
+                }
+                
+                return false;
+            }
+            
+            // Participants must be expected before being surveyed, such
+            // that no response can arrive prior to its expectation
+            if (!newSurveys.isEmpty())
+            {
+                expectRespondents(scope);
+            }
+            
+            // Surveys asked together are emitted in a single
+            // batch, answered once by each participant
+            if (batchSurveys && newSurveys.size() > 1)
+            {
+                final long surveyTime = System.nanoTime();
+                for (BeliefQuery query : newSurveys)
+                {
+                    markSurveyed(query, surveyTime);
+                }
+                
+                BeliefQueryBatch batch = new BeliefQueryBatch(newSurveys);
+                batch.setSource(sourceAddress);
+                space.emit(batch, scope);
+                PollTracer.getInstance().span(traceId, "emit", getID(), surveyTime);
+            }
+            else
+            {
+                for (BeliefQuery query : newSurveys)
+                {
+                    final long surveyTime = System.nanoTime();
+                    markSurveyed(query, surveyTime);
+                    
+                    space.emit(query, scope);
+                    PollTracer.getInstance().span(traceId, "emit", getID(), surveyTime);
+                }
+            }
+            BeliefMetrics.get().getQueriesAsked().increment(newSurveys.size());
+            
+            // Expected respondents may already decide the experiment,
+            // such as given too few are expected to reach a quorum
+            if (!newSurveys.isEmpty() && inProgress())
+            {
+                reevaluate();
             }
             
-            // Mark new surveys as active
-            activeSurveys.addAll(queries);
             return true;
         }
         
         return false;
     }
     
+    /**
+     * Copy a survey query, excluding its source, correlation
+     * and trace, which are stamped anew on each emission.
+     * @param query Query to copy
+     * @return Survey copy
+     */
+    private static BeliefQuery copySurvey(BeliefQuery query)
+    {
+        BeliefQuery copy = new BeliefQuery(query.queryToAsk);
+        copy.setDisclosureMode(query.getDisclosureMode());
+        copy.setSolutionLimit(query.getSolutionLimit());
+        copy.aggregate(query.getAggregationMode(), query.getAggregationTimeout());
+        return copy;
+    }
+    
+    /**
+     * Mark a survey as emitted, such that its responses
+     * may be attributed latencies and traced.
+     * @param query Survey being emitted
+     * @param surveyTime Time in ns at which the survey is emitted
+     */
+    private void markSurveyed(BeliefQuery query, long surveyTime)
+    {
+        surveyTimes.put(query.getCorrelationId(), surveyTime);
+        if (traceId != PollTracer.UNTRACED)
+        {
+            query.trace(traceId, surveyTime);
+        }
+    }
+    
+    /**
+     * Snapshot the participants falling within the given scope
+     * as respondents expected to answer the experiment surveys.
+     * @param scope Scope of surveyed participants
+     */
+    private void expectRespondents(Scope<Address> scope)
+    {
+        List<UUID> surveyed = new ArrayList<UUID>();
+        SynchronizedSet<UUID> participants = getParticipants();
+        synchronized (participants.mutex())
+        {
+            for (UUID participant : participants)
+            {
+                // Experiment and routers, including those of other
+                // principals, never respond to its surveys
+                if (participant.equals(getID()) || DisclosureRouter.isRouter(participant))
+                {
+                    continue;
+                }
+                
+                // Absent scope surveys all participants
+                Address address = space.getAddress(participant);
+                if (address != null && (scope == null || scope.matches(address)))
+                {
+                    surveyed.add(participant);
+                }
+            }
+        }
+        
+        // Participants first surveyed are assigned dense indices,
+        // with all expected and pending from the outset
+        if (participantIndex.get() == null)
+        {
+            ParticipantIndex index = new ParticipantIndex(surveyed);
+            if (participantIndex.compareAndSet(null, index))
+            {
+                positiveResponders.attachIndex(index, false);
+                negativeResponders.attachIndex(index, false);
+                expectedRespondents.attachIndex(index, true);
+                pendingRespondents.attachIndex(index, true);
+                
+                // Responses may have been recorded prior to the survey
+                pendingRespondents.removeAll(positiveResponders);
+                pendingRespondents.removeAll(negativeResponders);
+                return;
+            }
+        }
+        
+        // Participants surveyed later are held outside of the index
+        for (UUID participant : surveyed)
+        {
+            if (expectedRespondents.add(participant) && !hasResponded(participant))
+            {
+                pendingRespondents.add(participant);
+                // Participant may have responded to an earlier
+                // survey in the meantime
+                if (hasResponded(participant))
+                {
+                    pendingRespondents.remove(participant);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Check if a participant has responded to the experiment.
+     * @param participant Participant identifier
+     * @return True if responded, false otherwise.
+     */
+    private boolean hasResponded(UUID participant)
+    {
+        return positiveResponders.contains(participant) || negativeResponders.contains(participant);
+    }
+    
     @Override
     public void onDisclosure(BeliefDisclosure disclosure)
     {
         // Check if the poll is running and if the
         // disclosure pertains to an active query
-        if (inProgress() && activeSurveys.contains(disclosure.query))
+        if (inProgress() && surveyTimes.containsKey(disclosure.correlationId))
+        {
+            // Participants too busy to evaluate a survey make no
+            // claim as to their beliefs, and so remain outstanding
+            // unless the experiment lets them abstain
+            if (disclosure instanceof BusyBeliefDisclosure)
+            {
+                if (busyAbstention)
+                {
+                    excuseRespondent(disclosure.getSource().getUUID());
+                }
+                
+                return;
+            }
+            
+            recordLatency(disclosure);
+            
+            if (disclosure.traceId == PollTracer.UNTRACED)
+            {
+                // Evaluate the current response
+                evaluateResponse(disclosure);
+            }
+            else
+            {
+                evaluateTracedResponse(disclosure);
+            }
+        }
+    }
+    
+    /**
+     * Evaluate a traced response, recording its delivery
+     * and evaluation.
+     * @param disclosure Belief disclosure
+     */
+    private void evaluateTracedResponse(BeliefDisclosure disclosure)
+    {
+        final PollTracer tracer = PollTracer.getInstance();
+        final UUID responder = disclosure.getSource().getUUID();
+        
+        final long evaluationTime = System.nanoTime();
+        tracer.span(disclosure.traceId, "deliver", responder, disclosure.disclosureTime);
+        evaluateResponse(disclosure);
+        tracer.span(disclosure.traceId, "evaluate", responder, evaluationTime);
+    }
+    
+    /**
+     * Record the latency of a disclosure given it is the
+     * first response of an expected respondent.
+     * @param disclosure Belief disclosure
+     */
+    private void recordLatency(BeliefDisclosure disclosure)
+    {
+        final UUID responder = disclosure.getSource().getUUID();
+        final Long surveyTime = surveyTimes.get(disclosure.correlationId);
+        if (surveyTime != null && pendingRespondents.contains(responder))
+        {
+            latencyTracker.recordLatency(responder, System.nanoTime() - surveyTime);
+        }
+    }
+    
+    /**
+     * Record the latency of each respondent yet to respond as
+     * the time elapsed since the first survey, censoring their
+     * latencies at the experiment timeout.
+     */
+    private void recordCensoredLatencies()
+    {
+        long firstSurveyTime = Long.MAX_VALUE;
+        for (long surveyTime : surveyTimes.values())
+        {
+            firstSurveyTime = Math.min(firstSurveyTime, surveyTime);
+        }
+        
+        if (firstSurveyTime == Long.MAX_VALUE)
+        {
+            return;
+        }
+        
+        final long latency = System.nanoTime() - firstSurveyTime;
+        for (UUID respondent : pendingRespondents)
         {
-            // Evaluate the current response
-            evaluateResponse(disclosure);
+            latencyTracker.recordLatency(respondent, latency);
         }
     }
     
+    /**
+     * Get the tracker of response latencies within
+     * the experiment space.
+     * @return Latency tracker, or null given the experiment
+     * has not been executed
+     */
+    public ResponseLatencyTracker getLatencyTracker()
+    {
+        return latencyTracker;
+    }
+    
     /**
      * Evaluate the participant response that has been submitted.
      * @param response Belief response from experiment participant 
      */
     public abstract void evaluateResponse(BeliefDisclosure response);
     
+    /**
+     * Re-evaluate the experiment following a change to its
+     * outstanding respondents other than a response.
+     */
+    protected abstract void reevaluate();
+    
+    @Override
+    public void end()
+    {
+        cancel();
+    }
+    
     @Override
-    public synchronized void end()
+    public boolean cancel()
+    {
+        if (tryEnd())
+        {
+            BeliefMetrics.get().getExperimentCounter(getMetricName(), 
+                BeliefMetrics.EXPERIMENT_CANCELLED).increment();
+            onCancel();
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * React to the experiment being ended without a result,
+     * such as by completing pending results exceptionally.
+     */
+    protected void onCancel()
+    {
+    }
+    
+    /**
+     * End the experiment given it is in progress. Exactly one
+     * of any concurrent callers succeeds in ending the experiment.
+     * @return True if experiment was ended by this call,
+     * false otherwise.
+     */
+    protected final boolean tryEnd()
     {
         // Ensure experiment is currently in progress
-        if (inProgress())
+        if (!inProgress.compareAndSet(true, false))
         {
-            inProgress = false;
-            // Detach the experiment from the event space
-            EventSpaceUtils.unregisterFromEventSpace(this, space);
+            return false;
+        }
+        
+        // Detach the experiment from the router of the space
+        router.detach(this);
+        
+        // Experiment no longer requires a timeout
+        final ScheduledFuture<?> pendingTimeout = timeout;
+        if (pendingTimeout != null)
+        {
+            pendingTimeout.cancel(false);
+        }
+        
+        final long duration = System.nanoTime() - startTime;
+        PollTracer.getInstance().span(traceId, "experiment", getID(), startTime);
+        BeliefMetrics.experimentEnded(this);
+        BeliefMetrics.get().getExperimentDuration(getMetricName()).record(duration);
+        
+        statistics.complete(new ExperimentStatistics(expectedRespondents.size(), 
+            positiveResponders.size(), negativeResponders.size(), pendingRespondents.size(), 
+            TimeUnit.NANOSECONDS.toMillis(duration)));
+        return true;
+    }
+    
+    @Override
+    public long getTraceId()
+    {
+        return traceId;
+    }
+    
+    /**
+     * Get the name under which metrics of the experiment are
+     * reported, identifying its kind (such as "poll").
+     * @return Metric name
+     */
+    protected String getMetricName()
+    {
+        return "experiment";
+    }
+    
+    @Override
+    public CompletionStage<ExperimentStatistics> getStatistics()
+    {
+        return statistics;
+    }
+    
+    /**
+     * Attach the pending timeout of the experiment, allowing
+     * it to be cancelled should the experiment end early.
+     * @param timeout Pending timeout
+     */
+    private void setTimeout(ScheduledFuture<?> timeout)
+    {
+        this.timeout = timeout;
+        
+        // Experiment may have ended before the timeout
+        // was attached
+        if (!inProgress())
+        {
+            timeout.cancel(false);
         }
     }
 
     @Override
     public SynchronizedSet<BeliefQuery> getActiveSurveys()
     {
-        return Collections3.unmodifiableSynchronizedSet(activeSurveys);
+        return activeSurveysView;
     }
 
     @Override
@@ -374,7 +1021,7 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
      * @param disclosure Belief disclosure
      * @return Success status
      */
-    private boolean addResponse(SynchronizedSet<UUID> responders, BeliefDisclosure disclosure)
+    private boolean addResponse(Set<UUID> responders, BeliefDisclosure disclosure)
     {
         return addResponder(responders, disclosure.getSource().getUUID());
     }
@@ -386,21 +1033,72 @@ public abstract class AbstractSocialExperiment extends AbstractDisclosureListene
      * @param responder Identifier of responder
      * @return Success status
      */
-    private boolean addResponder(SynchronizedSet<UUID> responders, UUID responder)
+    private boolean addResponder(Set<UUID> responders, UUID responder)
+    {
+        if (responders.add(responder))
+        {
+            // First response from participant settles their
+            // expected response
+            pendingRespondents.remove(responder);
+            return true;
+        }
+        
+        return false;
+    }
+    
+    @Override
+    public SynchronizedSet<UUID> getExpectedRespondents()
     {
-        return responders.add(responder);
+        return expectedRespondentsView;
+    }
+    
+    @Override
+    public int getOutstandingResponderCount()
+    {
+        return pendingRespondents.size();
+    }
+    
+    @Override
+    public boolean excuseRespondent(UUID respondent)
+    {
+        if (pendingRespondents.remove(respondent))
+        {
+            // Excused respondent may have been the last
+            // holding up the experiment
+            if (inProgress())
+            {
+                reevaluate();
+            }
+            
+            return true;
+        }
+        
+        return false;
+    }
+    
+    @Override
+    protected void onParticipantDeparture(UUID participant)
+    {
+        // Departed participants are no longer able to respond
+        excuseRespondent(participant);
+        
+        final ResponseLatencyTracker tracker = latencyTracker;
+        if (tracker != null)
+        {
+            tracker.forget(participant);
+        }
     }
 
     @Override
     public SynchronizedSet<UUID> getPositiveResponders()
     {
-        return Collections3.unmodifiableSynchronizedSet(positiveResponders);
+        return positiveRespondersView;
     }
 
     @Override
     public SynchronizedSet<UUID> getNegativeResponders()
     {
-        return Collections3.unmodifiableSynchronizedSet(negativeResponders);
+        return negativeRespondersView;
     }
     
     @Override
@@ -0,0 +1,368 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.AbstractDisclosureListener;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.util.EventSpaceUtils;
+
+import io.sarl.lang.core.Address;
+import io.sarl.lang.core.EventSpace;
+import io.sarl.lang.core.SpaceID;
+
+import io.sarl.util.RestrictedAccessEventSpace;
+
+import java.security.Principal;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single listener registered in a space on behalf of all social
+ * experiments conducted there. Experiments attribute their surveys
+ * to the router, which dispatches each disclosure directly to the
+ * experiment which issued the survey disclosed upon, by survey
+ * correlation identifier, rather than every experiment inspecting
+ * every event of the space.
+ * <p>
+ * Routers are shared by reference count, being registered in
+ * their space on attachment of the first experiment and
+ * unregistered on detachment of the last. Routers of spaces
+ * with access restrictions are shared only between experiments
+ * conducted on behalf of the same principal, such that each
+ * principal is granted access by the space itself.
+ */
+public class DisclosureRouter extends AbstractDisclosureListener
+{
+    // Routers of each space (and principal, given the space
+    // has access restrictions) in which experiments are conducted
+    private static final Map<RouterKey, DisclosureRouter> ROUTERS = 
+        new ConcurrentHashMap<RouterKey, DisclosureRouter>();
+    // Identifiers of all routers registered in any space,
+    // added prior to their registration
+    private static final Set<UUID> ROUTER_IDS = ConcurrentHashMap.newKeySet();
+    
+    // Space the router is registered in
+    private final EventSpace space;
+    // Key the router is published under
+    private final RouterKey key;
+    // Tracker of response latencies within the space
+    private final ResponseLatencyTracker latencyTracker;
+    
+    // Experiment awaiting disclosures on each active survey,
+    // by survey correlation identifier
+    private final Map<Long, SocialExperimentBallot> routes;
+    // Experiments attached to the router
+    private final Set<SocialExperimentBallot> ballots;
+    
+    // Number of experiments attached (guarded by
+    // the router)
+    private int references;
+    // Whether the router has been withdrawn from the
+    // registry (guarded by the router)
+    private boolean retired;
+    
+    /**
+     * Constructor.
+     * @param space Space to route disclosures within
+     * @param key Key to publish router under
+     */
+    private DisclosureRouter(EventSpace space, RouterKey key)
+    {
+        this.space = space;
+        this.key = key;
+        latencyTracker = ResponseLatencyTracker.forSpace(space.getSpaceID());
+        
+        routes = new ConcurrentHashMap<Long, SocialExperimentBallot>();
+        ballots = ConcurrentHashMap.newKeySet();
+    }
+    
+    /**
+     * Attach an experiment to the router of a space, registering
+     * a new router in the space given none exists. In spaces with
+     * access restrictions, only routers registered with the same
+     * principal are reused.
+     * @param ballot Experiment to attach
+     * @param space Space experiment is conducted in
+     * @param principal Principal to identify access permissions
+     * @return Router of space, or null if a router could not
+     * be registered in the space
+     */
+    public static DisclosureRouter attach(SocialExperimentBallot ballot, EventSpace space, 
+        Principal principal)
+    {
+        final RouterKey key = RouterKey.of(space, principal);
+        while (true)
+        {
+            DisclosureRouter router = ROUTERS.get(key);
+            if (router == null)
+            {
+                // Registration calls into the space, and so is
+                // made outside of the registry
+                final DisclosureRouter created = new DisclosureRouter(space, key);
+                ROUTER_IDS.add(created.getID());
+                if (!EventSpaceUtils.registerInEventSpace(created, space, principal))
+                {
+                    ROUTER_IDS.remove(created.getID());
+                    return null;
+                }
+                
+                router = ROUTERS.putIfAbsent(key, created);
+                if (router == null)
+                {
+                    router = created;
+                }
+                else
+                {
+                    // Another router was published in the meantime
+                    EventSpaceUtils.unregisterFromEventSpace(created, space);
+                    ROUTER_IDS.remove(created.getID());
+                }
+            }
+            
+            synchronized (router)
+            {
+                // Router withdrawn since being published is
+                // replaced by a new router
+                if (!router.retired)
+                {
+                    router.references++;
+                    router.ballots.add(ballot);
+                    return router;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Detach an experiment from the router, discarding its routes.
+     * The router is unregistered from its space once no
+     * experiments remain attached. The latency tracker of the
+     * space is kept, for use by later experiments.
+     * @param ballot Experiment to detach
+     */
+    public void detach(SocialExperimentBallot ballot)
+    {
+        for (BeliefQuery survey : ballot.getActiveSurveys())
+        {
+            unroute(survey, ballot);
+        }
+        
+        synchronized (this)
+        {
+            if (!ballots.remove(ballot) || --references > 0)
+            {
+                return;
+            }
+            
+            // Withdraw the router, such that experiments attached
+            // from now on register a new router
+            retired = true;
+            ROUTERS.remove(key, this);
+        }
+        
+        EventSpaceUtils.unregisterFromEventSpace(this, space);
+        ROUTER_IDS.remove(getID());
+    }
+    
+    /**
+     * Assess whether a participant is a router, such that
+     * it is never expected to respond to surveys. Routers of
+     * every principal are recognised, including those
+     * registered in a space by other principals.
+     * @param participant Participant identifier
+     * @return True if participant is a router, false otherwise.
+     */
+    public static boolean isRouter(UUID participant)
+    {
+        return ROUTER_IDS.contains(participant);
+    }
+    
+    /**
+     * Get the router currently registered in a space without
+     * access restrictions.
+     * @param spaceID Identifier of space
+     * @return Router of space, or null if none
+     */
+    public static DisclosureRouter forSpace(SpaceID spaceID)
+    {
+        return ROUTERS.get(new RouterKey(spaceID, null));
+    }
+    
+    /**
+     * Get the router currently registered in a space on
+     * behalf of a principal.
+     * @param space Space to search in
+     * @param principal Principal router was registered with
+     * @return Router of space, or null if none
+     */
+    public static DisclosureRouter forSpace(EventSpace space, Principal principal)
+    {
+        return ROUTERS.get(RouterKey.of(space, principal));
+    }
+    
+    /**
+     * Route disclosures upon a survey to an experiment. Surveys
+     * must be correlated and routed prior to their emission.
+     * @param survey Survey issued by experiment
+     * @param ballot Experiment awaiting disclosures
+     */
+    public void route(BeliefQuery survey, SocialExperimentBallot ballot)
+    {
+        routes.put(survey.getCorrelationId(), ballot);
+    }
+    
+    /**
+     * Stop routing disclosures upon a survey to an experiment.
+     * @param survey Survey issued by experiment
+     * @param ballot Experiment no longer awaiting disclosures
+     */
+    public void unroute(BeliefQuery survey, SocialExperimentBallot ballot)
+    {
+        routes.remove(survey.getCorrelationId(), ballot);
+    }
+    
+    @Override
+    public void onDisclosure(BeliefDisclosure disclosure)
+    {
+        // Disclosures upon queries other than surveys
+        // are never routed
+        final SocialExperimentBallot ballot = routes.get(disclosure.correlationId);
+        if (ballot != null)
+        {
+            ballot.onDisclosure(disclosure);
+        }
+    }
+    
+    @Override
+    protected void onParticipantDeparture(UUID participant)
+    {
+        latencyTracker.forget(participant);
+        
+        // Departed participants are no longer able to
+        // respond to any experiment
+        for (SocialExperimentBallot ballot : ballots)
+        {
+            ballot.excuseRespondent(participant);
+        }
+    }
+    
+    /**
+     * Get the address of the router, to which disclosures
+     * upon routed surveys should be directed.
+     * @return Router address
+     */
+    public Address getAddress()
+    {
+        return space.getAddress(getID());
+    }
+    
+    /**
+     * Get the tracker of response latencies within the
+     * space the router is registered in.
+     * @return Latency tracker
+     */
+    public ResponseLatencyTracker getLatencyTracker()
+    {
+        return latencyTracker;
+    }
+    
+    /**
+     * Get the space the router is registered in.
+     * @return Router space
+     */
+    public EventSpace getSpace()
+    {
+        return space;
+    }
+    
+    /**
+     * Get the number of experiments attached to the router.
+     * @return Attached experiment count
+     */
+    public int getBallotCount()
+    {
+        return ballots.size();
+    }
+    
+    /**
+     * Key under which routers are published, identifying
+     * the space and, given the space has access restrictions,
+     * the principal the router was registered with.
+     */
+    private static final class RouterKey
+    {
+        // Identifier of router space
+        private final SpaceID spaceID;
+        // Principal router was registered with (null in
+        // spaces without access restrictions)
+        private final Principal principal;
+        
+        /**
+         * Constructor.
+         * @param spaceID Identifier of router space
+         * @param principal Principal router was registered with
+         */
+        private RouterKey(SpaceID spaceID, Principal principal)
+        {
+            this.spaceID = spaceID;
+            this.principal = principal;
+        }
+        
+        /**
+         * Create the key of the router of a space.
+         * @param space Space experiments are conducted in
+         * @param principal Principal to identify access permissions
+         * @return Router key
+         */
+        private static RouterKey of(EventSpace space, Principal principal)
+        {
+            // Principals only determine access to
+            // restricted spaces
+            return new RouterKey(space.getSpaceID(), 
+                space instanceof RestrictedAccessEventSpace ? principal : null);
+        }
+        
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            
+            if (!(o instanceof RouterKey))
+            {
+                return false;
+            }
+            
+            RouterKey key = (RouterKey) o;
+            return spaceID.equals(key.spaceID) && 
+                Objects.equals(principal, key.principal);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(spaceID, principal);
+        }
+    }
+}
@@ -25,4 +25,17 @@ import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
 public interface ExperimentEvaluator<S extends SocialExperiment>
 {
     public void evaluate(S experiment, BeliefDisclosure response);
+    
+    /**
+     * Re-evaluate an experiment whose outstanding respondents
+     * changed other than by responding, such as on a respondent
+     * being excused. Evaluators concluding once no respondents
+     * remain outstanding should check for completion here, such
+     * that the outcome does not depend on the order in which
+     * responses and excusals arrive.
+     * @param experiment Experiment to re-evaluate
+     */
+    public default void reevaluate(S experiment)
+    {
+    }
 }
\ No newline at end of file
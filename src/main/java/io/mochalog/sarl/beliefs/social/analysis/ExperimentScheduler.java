@@ -0,0 +1,56 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Service responsible for scheduling the timeouts
+ * of social experiments.
+ */
+public interface ExperimentScheduler
+{
+    /**
+     * Schedule a timeout procedure to be run after
+     * the given delay has elapsed.
+     * @param task Timeout procedure
+     * @param delay Time in ms
+     * @return Handle allowing the timeout to be cancelled
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay);
+
+    /**
+     * Get the number of timeouts currently awaiting
+     * execution.
+     * @return Queue depth
+     */
+    public int getQueueDepth();
+
+    /**
+     * Get the greatest delay observed between the time a
+     * timeout was due and the time it was run.
+     * @return Time in ms
+     */
+    public long getMaximumLateness();
+
+    /**
+     * Get the mean delay observed between the time a
+     * timeout was due and the time it was run.
+     * @return Time in ms
+     */
+    public double getAverageLateness();
+}
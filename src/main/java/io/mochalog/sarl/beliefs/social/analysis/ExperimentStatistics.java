@@ -0,0 +1,140 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import java.util.Collection;
+
+/**
+ * Summary of the responses gathered by a completed
+ * social experiment.
+ */
+public class ExperimentStatistics
+{
+    // Number of participants surveyed
+    private final int expectedCount;
+    // Number of responses supporting and opposing
+    // the experiment hypothesis
+    private final int positiveCount;
+    private final int negativeCount;
+    // Number of surveyed participants yet to respond
+    // when the experiment ended
+    private final int outstandingCount;
+    // Time for which the experiment ran, in ms
+    private final long duration;
+    
+    /**
+     * Constructor.
+     * @param expectedCount Number of participants surveyed
+     * @param positiveCount Number of supporting responses
+     * @param negativeCount Number of opposing responses
+     * @param outstandingCount Number of surveyed participants
+     * yet to respond
+     * @param duration Time in ms for which the experiment ran
+     */
+    public ExperimentStatistics(int expectedCount, int positiveCount, int negativeCount, 
+        int outstandingCount, long duration)
+    {
+        this.expectedCount = expectedCount;
+        this.positiveCount = positiveCount;
+        this.negativeCount = negativeCount;
+        this.outstandingCount = outstandingCount;
+        this.duration = duration;
+    }
+    
+    /**
+     * Combine the statistics of experiments run together
+     * over disjoint participants.
+     * @param statistics Statistics to combine
+     * @return Combined statistics, with the duration of
+     * the longest experiment
+     */
+    public static ExperimentStatistics combine(Collection<ExperimentStatistics> statistics)
+    {
+        int expected = 0;
+        int positive = 0;
+        int negative = 0;
+        int outstanding = 0;
+        long longest = 0;
+        
+        for (ExperimentStatistics experiment : statistics)
+        {
+            expected += experiment.expectedCount;
+            positive += experiment.positiveCount;
+            negative += experiment.negativeCount;
+            outstanding += experiment.outstandingCount;
+            longest = Math.max(longest, experiment.duration);
+        }
+        
+        return new ExperimentStatistics(expected, positive, negative, outstanding, longest);
+    }
+    
+    /**
+     * Get the number of participants surveyed.
+     * @return Expected respondent count
+     */
+    public int getExpectedCount()
+    {
+        return expectedCount;
+    }
+    
+    /**
+     * Get the number of responses supporting the
+     * experiment hypothesis.
+     * @return Positive response count
+     */
+    public int getPositiveCount()
+    {
+        return positiveCount;
+    }
+    
+    /**
+     * Get the number of responses opposing the
+     * experiment hypothesis.
+     * @return Negative response count
+     */
+    public int getNegativeCount()
+    {
+        return negativeCount;
+    }
+    
+    /**
+     * Get the number of surveyed participants yet to
+     * respond when the experiment ended.
+     * @return Outstanding respondent count
+     */
+    public int getOutstandingCount()
+    {
+        return outstandingCount;
+    }
+    
+    /**
+     * Get the time for which the experiment ran.
+     * @return Time in ms
+     */
+    public long getDuration()
+    {
+        return duration;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "ExperimentStatistics[expected=" + expectedCount + ", positive=" + positiveCount +
+            ", negative=" + negativeCount + ", outstanding=" + outstandingCount + 
+            ", duration=" + duration + "ms]";
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import io.sarl.lang.core.SpaceID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Record of the time taken by participants of a space to respond
+ * to experiment surveys, from emission of a survey to receipt
+ * of the first response of each respondent.
+ * <p>
+ * Latencies of the space as a whole are held in a logarithmic
+ * histogram whose weights decay exponentially over time, such that
+ * quantiles track recent behaviour. Latencies of each respondent
+ * are held as an exponentially weighted moving average, allowing
+ * habitually slow respondents to be identified.
+ * <p>
+ * Respondents yet to respond once an experiment times out are
+ * recorded as having responded at the timeout. Such latencies
+ * understate the true latency, but omitting them would leave only
+ * the respondents fast enough to respond in time, drawing
+ * quantiles ever lower.
+ * <p>
+ * The tracker of a space outlives the experiments conducted there,
+ * such that each experiment benefits from the latencies observed
+ * by those before it. Trackers of the most recently surveyed spaces
+ * are retained, up to a bound, unless discarded explicitly.
+ */
+public class ResponseLatencyTracker
+{
+    // Maximum number of spaces of which trackers are retained
+    public static final int MAXIMUM_TRACKED_SPACES = 1024;
+    
+    // Trackers of each space in which experiments were conducted,
+    // least recently used first (guarded by the map)
+    private static final Map<SpaceID, ResponseLatencyTracker> TRACKERS = 
+        new LinkedHashMap<SpaceID, ResponseLatencyTracker>(16, 0.75f, true)
+        {
+            // Version UID assigned to this object for
+            // serialization purposes
+            private static final long serialVersionUID = -4518712903862315095L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SpaceID, ResponseLatencyTracker> eldest)
+            {
+                return size() > MAXIMUM_TRACKED_SPACES;
+            }
+        };
+    
+    // Default time in ms over which histogram weights halve
+    public static final long DEFAULT_HALF_LIFE = 60000;
+    // Weight given to the latest latency of a respondent
+    // in their moving average
+    public static final double RESPONDER_SMOOTHING = 0.2;
+    // Minimum histogram weight for quantiles to be considered
+    // representative of the space
+    public static final double MINIMUM_SAMPLE_WEIGHT = 20;
+    
+    // Number of histogram buckets per doubling of latency
+    private static final int BUCKETS_PER_OCTAVE = 4;
+    // Number of histogram buckets, covering latencies in us
+    // up to 2^32 (over an hour)
+    private static final int BUCKET_COUNT = 32 * BUCKETS_PER_OCTAVE;
+    // Minimum time in ns between decays of the histogram
+    private static final long DECAY_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    
+    // Time in ns over which histogram weights halve
+    private final long halfLife;
+    // Source of the current time in ns
+    private final LongSupplier clock;
+    
+    // Decayed weight of latencies falling within each bucket
+    private final double[] buckets;
+    // Sum of all bucket weights
+    private double totalWeight;
+    // Time in ns at which histogram was last decayed
+    private long lastDecay;
+    
+    // Moving average latency in ms of each respondent
+    private final Map<UUID, Double> responderLatencies;
+    
+    /**
+     * Constructor.
+     * @param halfLife Time in ms over which the weight of
+     * recorded latencies halves
+     */
+    public ResponseLatencyTracker(long halfLife)
+    {
+        this(halfLife, System::nanoTime);
+    }
+    
+    /**
+     * Constructor.
+     * @param halfLife Time in ms over which the weight of
+     * recorded latencies halves
+     * @param clock Source of the current time in ns, against
+     * which recorded latencies are decayed
+     */
+    public ResponseLatencyTracker(long halfLife, LongSupplier clock)
+    {
+        if (halfLife <= 0)
+        {
+            throw new IllegalArgumentException("Latency half-life must be positive.");
+        }
+        
+        this.halfLife = TimeUnit.MILLISECONDS.toNanos(halfLife);
+        this.clock = clock;
+        
+        buckets = new double[BUCKET_COUNT];
+        lastDecay = clock.getAsLong();
+        
+        responderLatencies = new ConcurrentHashMap<UUID, Double>();
+    }
+    
+    /**
+     * Get the tracker of response latencies within a space,
+     * creating it given none exists. Should trackers of more
+     * spaces than the bound be created, that of the least
+     * recently used space is discarded.
+     * @param spaceID Identifier of space
+     * @return Latency tracker of space
+     */
+    public static ResponseLatencyTracker forSpace(SpaceID spaceID)
+    {
+        synchronized (TRACKERS)
+        {
+            return TRACKERS.computeIfAbsent(spaceID, 
+                (id) -> new ResponseLatencyTracker(DEFAULT_HALF_LIFE));
+        }
+    }
+    
+    /**
+     * Discard the tracker of response latencies within a
+     * space, such as once the space is destroyed.
+     * @param spaceID Identifier of space
+     */
+    public static void discard(SpaceID spaceID)
+    {
+        synchronized (TRACKERS)
+        {
+            TRACKERS.remove(spaceID);
+        }
+    }
+    
+    /**
+     * Record the time taken by a respondent to respond
+     * to a survey.
+     * @param responder Respondent identifier
+     * @param latency Time in ns
+     */
+    public void recordLatency(UUID responder, long latency)
+    {
+        final long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(latency, 0));
+        synchronized (buckets)
+        {
+            decay(clock.getAsLong());
+            buckets[bucketOf(micros)] += 1;
+            totalWeight += 1;
+        }
+        
+        final double millis = micros / 1000.0;
+        responderLatencies.merge(responder, millis, (average, latest) -> 
+            average + RESPONDER_SMOOTHING * (latest - average));
+    }
+    
+    /**
+     * Decay histogram weights by the time elapsed since
+     * they were last decayed.
+     * @param now Current time in ns
+     */
+    private void decay(long now)
+    {
+        final long elapsed = now - lastDecay;
+        if (elapsed < DECAY_INTERVAL)
+        {
+            return;
+        }
+        
+        final double factor = Math.pow(0.5, (double) elapsed / halfLife);
+        for (int i = 0; i < BUCKET_COUNT; ++i)
+        {
+            buckets[i] *= factor;
+        }
+        
+        totalWeight *= factor;
+        lastDecay = now;
+    }
+    
+    /**
+     * Get the histogram bucket holding a given latency.
+     * @param micros Time in us
+     * @return Bucket index
+     */
+    private static int bucketOf(long micros)
+    {
+        if (micros <= 1)
+        {
+            return 0;
+        }
+        
+        final int bucket = (int) (BUCKETS_PER_OCTAVE * (Math.log(micros) / Math.log(2)));
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+    
+    /**
+     * Get the upper bound of latencies held by a
+     * histogram bucket.
+     * @param bucket Bucket index
+     * @return Time in ms
+     */
+    private static double upperBoundOf(int bucket)
+    {
+        return Math.pow(2, (double) (bucket + 1) / BUCKETS_PER_OCTAVE) / 1000.0;
+    }
+    
+    /**
+     * Get the latency within which a given fraction of recent
+     * responses were received. Latencies are rounded up to the
+     * bound of their histogram bucket (within 19%).
+     * @param quantile Fraction of responses, in the interval [0, 1]
+     * @return Time in ms, or -1 given no latencies were recorded
+     */
+    public double getQuantile(double quantile)
+    {
+        synchronized (buckets)
+        {
+            decay(clock.getAsLong());
+            if (totalWeight <= 0)
+            {
+                return -1;
+            }
+            
+            final double target = quantile * totalWeight;
+            double cumulative = 0;
+            for (int i = 0; i < BUCKET_COUNT; ++i)
+            {
+                cumulative += buckets[i];
+                if (buckets[i] > 0 && cumulative >= target)
+                {
+                    return upperBoundOf(i);
+                }
+            }
+            
+            return upperBoundOf(BUCKET_COUNT - 1);
+        }
+    }
+    
+    /**
+     * Get the decayed number of latencies recorded, representing
+     * the amount of recent evidence held by the histogram.
+     * @return Sample weight
+     */
+    public double getSampleWeight()
+    {
+        synchronized (buckets)
+        {
+            decay(clock.getAsLong());
+            return totalWeight;
+        }
+    }
+    
+    /**
+     * Compute an experiment timeout from the latency within which
+     * a given fraction of recent responses were received. Given too
+     * few latencies have been recorded, the maximum is used.
+     * @param quantile Fraction of responses to await, in the
+     * interval [0, 1]
+     * @param minimum Minimum timeout in ms
+     * @param maximum Maximum timeout in ms
+     * @return Time in ms
+     */
+    public long getTimeout(double quantile, long minimum, long maximum)
+    {
+        if (getSampleWeight() < MINIMUM_SAMPLE_WEIGHT)
+        {
+            return maximum;
+        }
+        
+        final long latency = (long) Math.ceil(getQuantile(quantile));
+        return Math.min(Math.max(latency, minimum), maximum);
+    }
+    
+    /**
+     * Get the moving average latency of a respondent.
+     * @param responder Respondent identifier
+     * @return Time in ms, or -1 given respondent has
+     * not been recorded
+     */
+    public double getResponderLatency(UUID responder)
+    {
+        final Double latency = responderLatencies.get(responder);
+        return latency == null ? -1 : latency;
+    }
+    
+    /**
+     * Get the respondents with the greatest moving average
+     * latency, slowest first.
+     * @param count Maximum number of respondents to get
+     * @return Slowest respondents
+     */
+    public List<UUID> getSlowestResponders(int count)
+    {
+        List<Map.Entry<UUID, Double>> latencies = 
+            new ArrayList<Map.Entry<UUID, Double>>(responderLatencies.entrySet());
+        latencies.sort(Collections.reverseOrder(Map.Entry.<UUID, Double>comparingByValue()));
+        
+        List<UUID> slowest = new ArrayList<UUID>(Math.min(count, latencies.size()));
+        for (int i = 0; i < count && i < latencies.size(); ++i)
+        {
+            slowest.add(latencies.get(i).getKey());
+        }
+        
+        return slowest;
+    }
+    
+    /**
+     * Forget the latency of a respondent, such as
+     * on its departure from the space.
+     * @param responder Respondent identifier
+     */
+    public void forget(UUID responder)
+    {
+        responderLatencies.remove(responder);
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Experiment scheduler backed by a single thread pool
+ * shared by all experiments in the process.
+ * <p>
+ * Timer threads only detect elapsed timeouts; timeout procedures,
+ * and so the delivery of timed-out experiment results to their
+ * callbacks, are run on a separate delivery executor. A blocking
+ * callback hence never delays the timeouts of other experiments.
+ */
+public class SharedExperimentScheduler implements ExperimentScheduler
+{
+    // Default number of threads used to run timeouts
+    public static final int DEFAULT_CORE_POOL_SIZE = 1;
+
+    // Process-wide scheduler instance
+    private static final SharedExperimentScheduler INSTANCE =
+        new SharedExperimentScheduler(DEFAULT_CORE_POOL_SIZE);
+
+    // Underlying scheduler of experiment timeouts
+    private final ScheduledThreadPoolExecutor scheduler;
+    // Executor running timeout procedures once due
+    private final Executor delivery;
+
+    // Lateness statistics of executed timeouts
+    private final AtomicLong maximumLateness;
+    private final AtomicLong totalLateness;
+    private final AtomicLong executedTimeouts;
+
+    /**
+     * Constructor.
+     * @param corePoolSize Number of threads to detect timeouts on
+     */
+    public SharedExperimentScheduler(int corePoolSize)
+    {
+        this(corePoolSize, newDeliveryExecutor());
+    }
+
+    /**
+     * Constructor.
+     * @param corePoolSize Number of threads to detect timeouts on
+     * @param delivery Executor to run timeout procedures on
+     */
+    public SharedExperimentScheduler(int corePoolSize, Executor delivery)
+    {
+        this.delivery = delivery;
+
+        scheduler = new ScheduledThreadPoolExecutor(corePoolSize, 
+            new TimeoutThreadFactory("experiment-timeout-"));
+        // Ensure timeouts cancelled on early experiment completion
+        // do not linger in the work queue
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        maximumLateness = new AtomicLong();
+        totalLateness = new AtomicLong();
+        executedTimeouts = new AtomicLong();
+    }
+
+    /**
+     * Create the default executor of timeout procedures, growing
+     * as required such that blocked callbacks never starve others.
+     * @return Delivery executor
+     */
+    private static ExecutorService newDeliveryExecutor()
+    {
+        return Executors.newCachedThreadPool(new TimeoutThreadFactory("experiment-result-"));
+    }
+
+    /**
+     * Get the scheduler instance shared by the process.
+     * @return Shared scheduler
+     */
+    public static SharedExperimentScheduler getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Set the number of threads used to detect timeouts.
+     * @param corePoolSize Number of threads
+     */
+    public void setCorePoolSize(int corePoolSize)
+    {
+        scheduler.setCorePoolSize(corePoolSize);
+    }
+
+    /**
+     * Get the number of threads used to detect timeouts.
+     * @return Number of threads
+     */
+    public int getCorePoolSize()
+    {
+        return scheduler.getCorePoolSize();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delay)
+    {
+        final long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        return scheduler.schedule(() ->
+        {
+            recordLateness(System.nanoTime() - due);
+            // Hand the timeout off the timer thread, such that
+            // result callbacks run without holding it
+            delivery.execute(task);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record the lateness of an executed timeout.
+     * @param lateness Time in ns
+     */
+    private void recordLateness(long lateness)
+    {
+        final long latenessMillis = TimeUnit.NANOSECONDS.toMillis(Math.max(lateness, 0));
+
+        maximumLateness.accumulateAndGet(latenessMillis, Math::max);
+        totalLateness.addAndGet(latenessMillis);
+        executedTimeouts.incrementAndGet();
+    }
+
+    @Override
+    public int getQueueDepth()
+    {
+        return scheduler.getQueue().size();
+    }
+
+    @Override
+    public long getMaximumLateness()
+    {
+        return maximumLateness.get();
+    }
+
+    @Override
+    public double getAverageLateness()
+    {
+        final long executed = executedTimeouts.get();
+        return executed == 0 ? 0 : (double) totalLateness.get() / executed;
+    }
+
+    /**
+     * Factory producing daemon threads for the scheduler, such
+     * that pending timeouts never keep the process alive.
+     */
+    private static class TimeoutThreadFactory implements ThreadFactory
+    {
+        // Prefix of names of created threads
+        private final String namePrefix;
+        // Number of threads created so far
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        /**
+         * Constructor.
+         * @param namePrefix Prefix of names of created threads
+         */
+        public TimeoutThreadFactory(String namePrefix)
+        {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable,
+                namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import io.sarl.lang.util.SynchronizedSet;
 
 import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Interface to high-level state of a social
@@ -77,6 +78,31 @@ public interface SocialExperiment
      */
     public void end();
     
+    /**
+     * Cancel an in-progress experiment without producing a
+     * result, unregistering it from its space. Pending results
+     * complete exceptionally with a CancellationException.
+     * @return True if experiment was cancelled, false if
+     * it had already ended.
+     */
+    public boolean cancel();
+    
+    /**
+     * Get the statistics of the experiment, available
+     * once the experiment has ended.
+     * @return Pending experiment statistics
+     */
+    public CompletionStage<ExperimentStatistics> getStatistics();
+    
+    /**
+     * Get the identifier of the trace recording the lifecycle
+     * of the experiment, allowing its timeline to be dumped
+     * through the PollTracer.
+     * @return Trace identifier, or zero given the
+     * experiment is untraced
+     */
+    public long getTraceId();
+    
     /**
      * Get space in which social experiment
      * is being conducted.
@@ -75,4 +75,31 @@ public interface SocialExperimentBallot extends SocialExperiment, DisclosureList
      * @return Set of supporting responders
      */
     public SynchronizedSet<UUID> getNegativeResponders();
+    
+    /**
+     * Get participants who were surveyed during the experiment
+     * and were hence expected to respond.
+     * @return Set of expected respondents
+     */
+    public SynchronizedSet<UUID> getExpectedRespondents();
+    
+    /**
+     * Get the number of expected respondents who have neither
+     * responded nor been excused from responding.
+     * @return Number of outstanding responders
+     */
+    public int getOutstandingResponderCount();
+    
+    /**
+     * Excuse an expected respondent from responding (such as
+     * when they have departed the experiment space, or are too
+     * busy to respond and the experiment lets busy respondents
+     * abstain). Excused respondents abstain: they remain
+     * expected, but are counted neither for nor against the
+     * hypothesis. The experiment is re-evaluated given the
+     * respondent was outstanding.
+     * @param respondent Respondent identifier
+     * @return True if respondent was outstanding, false otherwise.
+     */
+    public boolean excuseRespondent(UUID respondent);
 }
\ No newline at end of file
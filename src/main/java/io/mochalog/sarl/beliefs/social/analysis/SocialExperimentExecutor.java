@@ -114,7 +114,10 @@ public interface SocialExperimentExecutor<E extends SocialExperimentExecutor<E,
     
     /**
      * Provide a timeout after which the executed experiment
-     * will be finalised.
+     * will be finalised. Executors deriving from
+     * AbstractSocialExperiment.Executor additionally accept AUTO_TIMEOUT,
+     * capping the experiment at the response latencies recently
+     * observed in its space.
      * @param timeout Time in ms
      * @return Executor instance
      */
@@ -19,6 +19,8 @@ package io.mochalog.sarl.beliefs.social.analysis.contest;
 import io.mochalog.sarl.beliefs.social.analysis.SocialExperiment;
 
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Interface for contests in which agents compete
@@ -34,4 +36,11 @@ public interface AgentContest extends SocialExperiment
      * @return Prize parameters
      */
     public List<Object> getPrize();
+    
+    /**
+     * Get the winners of the contest, completing once
+     * contest results are announced.
+     * @return Pending contest winners
+     */
+    public CompletionStage<List<UUID>> getWinners();
 }
\ No newline at end of file
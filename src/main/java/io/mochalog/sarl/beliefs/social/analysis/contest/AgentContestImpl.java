@@ -16,6 +16,7 @@
 
 package io.mochalog.sarl.beliefs.social.analysis.contest;
 
+import io.mochalog.sarl.beliefs.metrics.BeliefMetrics;
 import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
 import io.mochalog.sarl.beliefs.social.analysis.AbstractSocialExperiment;
 import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
@@ -24,10 +25,12 @@ import io.sarl.lang.core.EventSpace;
 
 import io.sarl.util.Collections3;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.eclipse.xtext.xbase.lib.Functions.Function1;
 
@@ -46,6 +49,8 @@ public final class AgentContestImpl extends AbstractSocialExperiment
     
     // Prize to offer to contest winners
     private List<Object> prizeParams;
+    // Winners of the contest, completed on announcement
+    private final CompletableFuture<List<UUID>> winners;
     
     /**
      * Implementation of executor service for AgentContestImpl instances.
@@ -115,7 +120,7 @@ public final class AgentContestImpl extends AbstractSocialExperiment
             // prior to timeout, assume positive responders are
             // eligible entrants and delegate to winner selector
             // function for announcement
-            contest.announceContestResult(contest.getPositiveResponders());
+            contest.announceContestResult(contest.getPositiveResponders(), true);
         }
 
         @Override
@@ -161,6 +166,8 @@ public final class AgentContestImpl extends AbstractSocialExperiment
         
         this.evaluator = evaluator;
         this.winnerSelector = winnerSelector;
+        
+        winners = new CompletableFuture<List<UUID>>();
     }
     
     @Override
@@ -184,22 +191,69 @@ public final class AgentContestImpl extends AbstractSocialExperiment
     {
         evaluator.evaluate(this, response);
     }
+    
+    @Override
+    protected void reevaluate()
+    {
+        evaluator.reevaluate(this);
+    }
 
     @Override
     public void announceContestResult(Set<UUID> eligibleEntrants)
     {
-        if (inProgress())
+        announceContestResult(eligibleEntrants, false);
+    }
+    
+    /**
+     * Announce the winners of the contest, ending it.
+     * @param eligibleEntrants Entrants eligible to win
+     * @param timedOut Whether the contest ended on timing out,
+     * rather than being decided by its evaluator
+     */
+    private void announceContestResult(Set<UUID> eligibleEntrants, boolean timedOut)
+    {
+        // Only the first result to end the contest is announced
+        if (tryEnd())
         {
-            end();
+            BeliefMetrics.get().getExperimentCounter(getMetricName(), timedOut ? 
+                BeliefMetrics.EXPERIMENT_TIMED_OUT : BeliefMetrics.EXPERIMENT_COMPLETED).increment();
             
             // Determine contest winners from eligible
             // contest entrants
-            List<UUID> winners = winnerSelector.apply(eligibleEntrants);
+            List<UUID> selectedWinners;
+            try
+            {
+                selectedWinners = winnerSelector.apply(eligibleEntrants);
+            }
+            catch (RuntimeException e)
+            {
+                winners.completeExceptionally(e);
+                throw e;
+            }
+            winners.complete(selectedWinners);
             
             // Announce the results of the contest to all
             // participants
             EventSpace space = getSpace();
-            space.emit(new ContestAnnouncement(this, winners));
+            space.emit(new ContestAnnouncement(this, selectedWinners));
         }
     }
+    
+    @Override
+    protected String getMetricName()
+    {
+        return "contest";
+    }
+    
+    @Override
+    protected void onCancel()
+    {
+        winners.completeExceptionally(new CancellationException("Contest ended without winners."));
+    }
+    
+    @Override
+    public CompletionStage<List<UUID>> getWinners()
+    {
+        return winners;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis.poll;
+
+import io.mochalog.sarl.beliefs.query.AggregationMode;
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.AggregatedBeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Poll evaluation function aggregating disclosures, themselves
+ * possibly aggregated by the respondent over its own inner
+ * context, into belief counts and a single verdict.
+ * <p>
+ * The poll is finalised as soon as its verdict is decided,
+ * such that counts reflect only the responses gathered
+ * until then.
+ */
+public class HierarchicalPollAggregator implements ExperimentEvaluator<SocialPollBallot>
+{
+    // Manner in which responses are aggregated
+    private final AggregationMode mode;
+    
+    // Number of agents found to believe and not believe the
+    // query, and known not to have responded in time
+    private final AtomicInteger positiveCount;
+    private final AtomicInteger negativeCount;
+    private final AtomicInteger unansweredCount;
+    
+    // Ballot of the poll being aggregated (null until known)
+    private volatile SocialPollBallot ballot;
+    
+    /**
+     * Constructor.
+     * @param mode Manner in which responses are aggregated
+     */
+    public HierarchicalPollAggregator(AggregationMode mode)
+    {
+        if (mode == null || mode == AggregationMode.NONE)
+        {
+            throw new IllegalArgumentException("Aggregation mode must be ALL or ANY.");
+        }
+        
+        this.mode = mode;
+        
+        positiveCount = new AtomicInteger();
+        negativeCount = new AtomicInteger();
+        unansweredCount = new AtomicInteger();
+    }
+    
+    @Override
+    public void evaluate(SocialPollBallot poll, BeliefDisclosure response)
+    {
+        ballot = poll;
+        
+        // Only the first response of each respondent counts
+        final boolean recorded = response.isBelieved ? 
+            poll.addPositiveResponse(response) : poll.addNegativeResponse(response);
+        if (!recorded)
+        {
+            return;
+        }
+        
+        if (response instanceof AggregatedBeliefDisclosure)
+        {
+            AggregatedBeliefDisclosure aggregate = (AggregatedBeliefDisclosure) response;
+            positiveCount.addAndGet(aggregate.positiveCount);
+            negativeCount.addAndGet(aggregate.negativeCount);
+            unansweredCount.addAndGet(aggregate.unansweredCount);
+        }
+        else
+        {
+            countBelief(response.isBelieved);
+        }
+        
+        // Verdict of a respondent is decisive given it opposes
+        // the aggregation default
+        if (isDecisive(response.isBelieved))
+        {
+            poll.finalisePollResult(response.isBelieved);
+        }
+        else if (poll.getOutstandingResponderCount() == 0)
+        {
+            poll.finalisePollResult(getVerdict());
+        }
+    }
+    
+    @Override
+    public void reevaluate(SocialPollBallot poll)
+    {
+        ballot = poll;
+        
+        // Excused respondents are not counted towards
+        // the aggregate verdict
+        if (poll.getOutstandingResponderCount() == 0)
+        {
+            poll.finalisePollResult(getVerdict());
+        }
+    }
+    
+    /**
+     * Check if a verdict decides the aggregate verdict
+     * on its own.
+     * @param isBelieved Verdict to check
+     * @return True if decisive, false otherwise.
+     */
+    public boolean isDecisive(boolean isBelieved)
+    {
+        return mode == AggregationMode.ALL ? !isBelieved : isBelieved;
+    }
+    
+    /**
+     * Count the belief of a single agent towards the
+     * aggregate, such as that of the polling agent itself.
+     * @param isBelieved Whether agent believes query
+     */
+    public void countBelief(boolean isBelieved)
+    {
+        (isBelieved ? positiveCount : negativeCount).incrementAndGet();
+    }
+    
+    /**
+     * Attach the ballot of the poll being aggregated, allowing
+     * respondents yet to respond to be counted.
+     * @param poll Poll being aggregated
+     */
+    public void attach(SocialPoll poll)
+    {
+        if (poll instanceof SocialPollBallot)
+        {
+            ballot = (SocialPollBallot) poll;
+        }
+    }
+    
+    /**
+     * Get the aggregate verdict given the responses gathered.
+     * Respondents yet to respond are not considered to
+     * believe the query.
+     * @return True if query believed per aggregation mode,
+     * false otherwise.
+     */
+    public boolean getVerdict()
+    {
+        if (mode == AggregationMode.ALL)
+        {
+            return negativeCount.get() == 0 && getUnansweredCount() == 0;
+        }
+        
+        return positiveCount.get() > 0;
+    }
+    
+    /**
+     * Produce a disclosure of the aggregated beliefs in
+     * answer to a query.
+     * @param query Query to answer
+     * @param isBelieved Aggregate verdict
+     * @return Aggregated belief disclosure
+     */
+    public AggregatedBeliefDisclosure disclose(BeliefQuery query, boolean isBelieved)
+    {
+        return new AggregatedBeliefDisclosure(query, isBelieved, positiveCount.get(), 
+            negativeCount.get(), getUnansweredCount());
+    }
+    
+    /**
+     * Get the manner in which responses are aggregated.
+     * @return Aggregation mode
+     */
+    public AggregationMode getMode()
+    {
+        return mode;
+    }
+    
+    /**
+     * Get the number of agents found to believe the query.
+     * @return Positive count
+     */
+    public int getPositiveCount()
+    {
+        return positiveCount.get();
+    }
+    
+    /**
+     * Get the number of agents found not to believe the query.
+     * @return Negative count
+     */
+    public int getNegativeCount()
+    {
+        return negativeCount.get();
+    }
+    
+    /**
+     * Get the number of agents which have not responded,
+     * including those of inner contexts of respondents.
+     * @return Unanswered count
+     */
+    public int getUnansweredCount()
+    {
+        final SocialPollBallot poll = ballot;
+        final int outstanding = poll == null ? 0 : poll.getOutstandingResponderCount();
+        return unansweredCount.get() + outstanding;
+    }
+}
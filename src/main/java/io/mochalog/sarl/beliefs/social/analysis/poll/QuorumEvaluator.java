@@ -0,0 +1,175 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis.poll;
+
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
+
+/**
+ * Poll evaluation function deciding whether a quorum of
+ * respondents agrees with a hypothesis.
+ * <p>
+ * The poll is finalised as soon as its outcome can no longer
+ * change: with a positive result once the quorum is reached, or
+ * with a negative result once too few respondents remain
+ * outstanding for the quorum to be reached. Slow respondents
+ * hence only hold up the poll while their responses could
+ * still affect its result. A quorum which no expected respondents
+ * could reach fails as soon as respondents are expected.
+ * <p>
+ * Evaluators hold no state of their own, such that a single
+ * evaluator may evaluate any number of polls. The respondents
+ * forming the quorum are those of the poll agreeing respondents.
+ */
+public class QuorumEvaluator implements ExperimentEvaluator<SocialPollBallot>
+{
+    // Number of agreeing respondents required (or zero
+    // if required fraction is used instead)
+    private final int quorum;
+    // Fraction of expected respondents required to agree
+    private final double fraction;
+    // Whether respondents should agree that query is
+    // true, or not
+    private final boolean isTrue;
+    
+    /**
+     * Constructor.
+     * @param quorum Number of agreeing respondents required
+     * @param fraction Fraction of expected respondents
+     * required to agree
+     * @param isTrue Whether respondents should agree that
+     * query is true, or not
+     */
+    private QuorumEvaluator(int quorum, double fraction, boolean isTrue)
+    {
+        this.quorum = quorum;
+        this.fraction = fraction;
+        this.isTrue = isTrue;
+    }
+    
+    /**
+     * Create an evaluator requiring at least a given number
+     * of respondents to agree.
+     * @param quorum Number of agreeing respondents required
+     * @param isTrue Whether respondents should agree that
+     * query is true, or not
+     * @return Quorum evaluator
+     */
+    public static QuorumEvaluator atLeast(int quorum, boolean isTrue)
+    {
+        if (quorum <= 0)
+        {
+            throw new IllegalArgumentException("Quorum must be positive.");
+        }
+        
+        return new QuorumEvaluator(quorum, 0, isTrue);
+    }
+    
+    /**
+     * Create an evaluator requiring at least a given fraction
+     * of the expected respondents to agree.
+     * @param fraction Fraction of expected respondents required,
+     * in the interval (0, 1]
+     * @param isTrue Whether respondents should agree that
+     * query is true, or not
+     * @return Quorum evaluator
+     */
+    public static QuorumEvaluator fraction(double fraction, boolean isTrue)
+    {
+        if (!(fraction > 0 && fraction <= 1))
+        {
+            throw new IllegalArgumentException("Quorum fraction must be in the interval (0, 1].");
+        }
+        
+        return new QuorumEvaluator(0, fraction, isTrue);
+    }
+    
+    @Override
+    public void evaluate(SocialPollBallot poll, BeliefDisclosure response)
+    {
+        if (response.isBelieved == isTrue)
+        {
+            // Only the first response of each respondent counts
+            if (!poll.addPositiveResponse(response))
+            {
+                return;
+            }
+        }
+        else if (!poll.addNegativeResponse(response))
+        {
+            return;
+        }
+        
+        reevaluate(poll);
+    }
+    
+    @Override
+    public void reevaluate(SocialPollBallot poll)
+    {
+        final int required = getQuorum(poll);
+        final int agreed = poll.getPositiveResponders().size();
+        
+        if (agreed >= required)
+        {
+            poll.finalisePollResult(true);
+        }
+        else if (agreed + poll.getOutstandingResponderCount() < required)
+        {
+            // Quorum can no longer be reached
+            poll.finalisePollResult(false);
+        }
+    }
+    
+    /**
+     * Get the number of agreeing respondents required
+     * for a given poll.
+     * @param poll Poll being evaluated
+     * @return Quorum
+     */
+    public int getQuorum(SocialPollBallot poll)
+    {
+        if (quorum > 0)
+        {
+            return quorum;
+        }
+        
+        // Round up, always requiring at least a
+        // single agreeing respondent
+        final int expected = poll.getExpectedRespondents().size();
+        return Math.max((int) Math.ceil(fraction * expected), 1);
+    }
+    
+    /**
+     * Get the fixed number of agreeing respondents required.
+     * @return Quorum, or zero if a fraction of the expected
+     * respondents is required instead
+     */
+    public int getRequiredCount()
+    {
+        return quorum;
+    }
+    
+    /**
+     * Check whether respondents should agree that the
+     * query is true, or not.
+     * @return Hypothesis of the quorum
+     */
+    public boolean isTrue()
+    {
+        return isTrue;
+    }
+}
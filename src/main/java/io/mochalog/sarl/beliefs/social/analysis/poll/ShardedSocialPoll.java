@@ -0,0 +1,750 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis.poll;
+
+import io.mochalog.sarl.beliefs.exceptions.ExecutionFailedException;
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentScheduler;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStatistics;
+import io.mochalog.sarl.beliefs.trace.PollTracer;
+
+import io.sarl.lang.core.Address;
+import io.sarl.lang.core.EventSpace;
+import io.sarl.lang.core.Scope;
+
+import io.sarl.lang.util.SynchronizedSet;
+
+import io.sarl.util.Collections3;
+import io.sarl.util.Scopes;
+
+import java.security.Principal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
+
+/**
+ * Poll conducted over a partitioned participant population.
+ * Participants are divided into shards by identifier hash, with
+ * each shard surveyed and evaluated by its own ballot, such that
+ * responses of separate shards are evaluated in parallel. Shard
+ * results are merged into a single poll result.
+ */
+public class ShardedSocialPoll implements SocialPoll
+{
+    /**
+     * Manner in which shard results are merged into
+     * the poll result.
+     */
+    public static enum MergePolicy
+    {
+        // Poll holds only if it holds in every shard
+        ALL,
+        // Poll holds if it holds in any shard
+        ANY;
+        
+        /**
+         * Choose the merge policy matching an evaluation function.
+         * Polls requiring at least one agreeing respondent hold
+         * if they hold in any shard. Polls requiring a fraction
+         * of respondents to agree, or every respondent to agree,
+         * hold only if they hold in every shard. A fraction held
+         * in every shard is held across the whole population,
+         * although it may be held across the population while
+         * falling short in a single shard.
+         * @param evaluator Evaluation function applied within
+         * each shard
+         * @return Merge policy
+         */
+        public static MergePolicy forEvaluator(ExperimentEvaluator<?> evaluator)
+        {
+            if (evaluator instanceof QuorumEvaluator && 
+                ((QuorumEvaluator) evaluator).getRequiredCount() == 1)
+            {
+                return ANY;
+            }
+            
+            return ALL;
+        }
+    }
+    
+    // Space in which poll is taking place
+    private final EventSpace space;
+    // Manner in which shard results are merged
+    private final MergePolicy mergePolicy;
+    
+    // Ballots of each polled shard
+    private final List<SocialPollImpl> shards;
+    // Indices of polled shards (empty if population
+    // is unpartitioned)
+    private final List<Integer> shardIndices;
+    // Number of shards partitioning the population
+    private final int shardCount;
+    // Number of shards yet to produce a result
+    private final AtomicInteger pendingShards;
+    
+    // Flag indicating whether poll result is yet to be decided
+    private final AtomicBoolean inProgress;
+    // Callback function to invoke once result has been computed
+    private volatile Procedure1<? super Boolean> callback;
+    
+    // Identifier of the trace shared by all shards
+    private final long traceId;
+    
+    // Result of the poll, completed once finalised
+    private final CompletableFuture<Boolean> result;
+    // Combined statistics of all executed shards, completed
+    // once the poll has ended
+    private final CompletableFuture<ExperimentStatistics> statistics;
+    // Flag indicating whether every shard to be polled
+    // has been executed
+    private volatile boolean shardsExecuted;
+    
+    /**
+     * Executor service for sharded polls. Settings shared by
+     * every shard are held by a social poll executor, from which
+     * the executor of each shard is configured.
+     */
+    public static class Executor
+    {
+        // Settings shared by the executors of all shards
+        private final SocialPollImpl.Executor shardSettings;
+        // Callback function to be invoked on result computation
+        private Procedure1<? super Boolean> callback;
+        
+        // Number of shards to partition participants into
+        private int shardCount;
+        // Manner in which shard results are merged (or null
+        // to match the evaluation function)
+        private MergePolicy mergePolicy;
+        
+        /**
+         * Constructor.
+         */
+        public Executor()
+        {
+            shardSettings = new SocialPollImpl.Executor();
+            
+            shardCount = Runtime.getRuntime().availableProcessors();
+        }
+        
+        /**
+         * Set space to conduct poll in.
+         * @param space Event space
+         * @return Executor instance
+         */
+        public Executor setSpace(EventSpace space)
+        {
+            shardSettings.setSpace(space);
+            return this;
+        }
+        
+        /**
+         * Set principal object with which space access
+         * will be authenticated.
+         * @param principal Access principal
+         * @return Executor instance
+         */
+        public Executor setAccessPrincipal(Principal principal)
+        {
+            shardSettings.setAccessPrincipal(principal);
+            return this;
+        }
+        
+        /**
+         * Add survey queries to be posed to poll participants
+         * on execution.
+         * @param surveys Surveys to ask
+         * @return Executor instance
+         */
+        public Executor addSurveys(BeliefQuery... surveys)
+        {
+            shardSettings.addSurveys(surveys);
+            return this;
+        }
+        
+        /**
+         * Add survey queries to be posed to poll participants
+         * on execution.
+         * @param surveys Surveys to ask
+         * @return Executor instance
+         */
+        public Executor addSurveys(Collection<BeliefQuery> surveys)
+        {
+            shardSettings.addSurveys(surveys);
+            return this;
+        }
+        
+        /**
+         * Set the scope of participants to which surveys
+         * will be posed.
+         * @param scope Survey scope
+         * @return Executor instance
+         */
+        public Executor setSurveyScope(Scope<Address> scope)
+        {
+            shardSettings.setSurveyScope(scope);
+            return this;
+        }
+        
+        /**
+         * Set the evaluation function applied to responses
+         * within each shard.
+         * <p>
+         * Quorums of more than a single respondent cannot be
+         * evaluated per shard, given respondents agreeing in
+         * separate shards are never counted together. Fractional
+         * quorums should be used instead.
+         * @param evaluator Evaluation function
+         * @return Executor instance
+         */
+        public Executor setEvaluator(ExperimentEvaluator<? super SocialPollBallot> evaluator)
+        {
+            if (evaluator instanceof QuorumEvaluator && 
+                ((QuorumEvaluator) evaluator).getRequiredCount() > 1)
+            {
+                throw new IllegalArgumentException("Quorum counts cannot be evaluated per shard.");
+            }
+            
+            shardSettings.setEvaluator(evaluator);
+            return this;
+        }
+        
+        /**
+         * Provide callback function to be invoked when poll
+         * finalised and result collected.
+         * @param callback Callback function
+         * @return Executor instance
+         */
+        public Executor onPollResult(Procedure1<? super Boolean> callback)
+        {
+            this.callback = callback;
+            return this;
+        }
+        
+        /**
+         * Set the number of shards to partition poll
+         * participants into.
+         * @param shardCount Number of shards
+         * @return Executor instance
+         */
+        public Executor setShardCount(int shardCount)
+        {
+            if (shardCount <= 0)
+            {
+                throw new IllegalArgumentException("Shard count must be positive.");
+            }
+            
+            this.shardCount = shardCount;
+            return this;
+        }
+        
+        /**
+         * Set the manner in which shard results are merged
+         * into the poll result. Policies should match the
+         * evaluation function, such that the merged result
+         * holds whenever the evaluator would hold across the
+         * whole population.
+         * @param mergePolicy Merge policy (null to choose the
+         * policy matching the evaluation function)
+         * @return Executor instance
+         * @see MergePolicy#forEvaluator
+         */
+        public Executor setMergePolicy(MergePolicy mergePolicy)
+        {
+            this.mergePolicy = mergePolicy;
+            return this;
+        }
+        
+        /**
+         * Set the scheduler with which shard timeouts
+         * will be registered.
+         * @param scheduler Experiment scheduler
+         * @return Executor instance
+         */
+        public Executor setScheduler(ExperimentScheduler scheduler)
+        {
+            shardSettings.setScheduler(scheduler);
+            return this;
+        }
+        
+        /**
+         * Provide a timeout after which every shard
+         * will be finalised.
+         * @param timeout Time in ms
+         * @return Executor instance
+         */
+        public Executor endExperimentAfter(long timeout)
+        {
+            shardSettings.endExperimentAfter(timeout);
+            return this;
+        }
+        
+        /**
+         * Cap each shard at the latency within which a given
+         * fraction of recent responses in the space were received.
+         * @param quantile Fraction of responses to await, in the
+         * interval [0, 1]
+         * @param minimum Minimum timeout in ms
+         * @param maximum Maximum timeout in ms
+         * @return Executor instance
+         * @see io.mochalog.sarl.beliefs.social.analysis.AbstractSocialExperiment.Executor#endExperimentAfterQuantile
+         */
+        public Executor endExperimentAfterQuantile(double quantile, long minimum, long maximum)
+        {
+            shardSettings.endExperimentAfterQuantile(quantile, minimum, maximum);
+            return this;
+        }
+        
+        /**
+         * Set whether surveys asked together are emitted as a
+         * single query batch within each shard.
+         * @param batchSurveys Whether to batch surveys (defaults
+         * to false)
+         * @return Executor instance
+         */
+        public Executor setSurveyBatching(boolean batchSurveys)
+        {
+            shardSettings.setSurveyBatching(batchSurveys);
+            return this;
+        }
+        
+        /**
+         * Execute a sharded poll based on the current
+         * executor configuration.
+         * @return Poll instance
+         * @throws ExecutionFailedException Poll was unable
+         * to be executed in the given event space.
+         */
+        public ShardedSocialPoll execute() throws ExecutionFailedException
+        {
+            // Shards holding no participants are not polled, given
+            // they would otherwise await their timeout
+            final List<Integer> populatedShards = populatedShards();
+            final MergePolicy policy = mergePolicy != null ? mergePolicy : 
+                MergePolicy.forEvaluator(shardSettings.getEvaluator());
+            final ShardedSocialPoll poll = new ShardedSocialPoll(shardSettings.getSpace(), policy, 
+                populatedShards, shardCount);
+            poll.onPollResult(callback);
+            
+            try
+            {
+                if (populatedShards.isEmpty())
+                {
+                    // Degenerate to a single unpartitioned shard
+                    poll.shards.add(executeShard(poll, shardSettings.getSurveyScope()));
+                }
+                else
+                {
+                    for (int shard : populatedShards)
+                    {
+                        // Shards yet to be executed are not surveyed
+                        // once an earlier shard decides the poll
+                        if (!poll.inProgress())
+                        {
+                            break;
+                        }
+                        
+                        Scope<Address> scope = new ShardScope(shardSettings.getSurveyScope(), 
+                            shard, shardCount);
+                        poll.shards.add(executeShard(poll, scope));
+                    }
+                }
+            }
+            catch (ExecutionFailedException e)
+            {
+                poll.end();
+                throw e;
+            }
+            
+            poll.shardsExecuted = true;
+            
+            // Result may have been decided before all
+            // shards were executed
+            if (!poll.inProgress())
+            {
+                poll.endShards();
+                poll.completeStatistics();
+            }
+            
+            return poll;
+        }
+        
+        /**
+         * Execute the ballot of a single shard.
+         * @param poll Poll the shard belongs to
+         * @param scope Scope of participants in shard
+         * @return Shard ballot
+         * @throws ExecutionFailedException Shard was unable
+         * to be executed in the given event space.
+         */
+        private SocialPollImpl executeShard(ShardedSocialPoll poll, Scope<Address> scope) 
+            throws ExecutionFailedException
+        {
+            return new SocialPollImpl.Executor()
+                .copySettings(shardSettings)
+                .addSurveys(shardSettings.getSurveys())
+                .setSurveyScope(scope)
+                .setEvaluator(shardSettings.getEvaluator())
+                .onPollResult((result) -> poll.onShardResult(result))
+                .setTraceId(poll.traceId)
+                .execute();
+        }
+        
+        /**
+         * Determine the shards holding at least one participant
+         * within the survey scope.
+         * @return Indices of populated shards
+         */
+        private List<Integer> populatedShards()
+        {
+            final EventSpace space = shardSettings.getSpace();
+            final Scope<Address> surveyScope = shardSettings.getSurveyScope();
+            if (space == null)
+            {
+                return Collections.emptyList();
+            }
+            
+            final boolean[] populated = new boolean[shardCount];
+            SynchronizedSet<UUID> participants = space.getParticipants();
+            synchronized (participants.mutex())
+            {
+                for (UUID participant : participants)
+                {
+                    Address address = space.getAddress(participant);
+                    if (address != null && (surveyScope == null || surveyScope.matches(address)))
+                    {
+                        populated[shardOf(participant, shardCount)] = true;
+                    }
+                }
+            }
+            
+            List<Integer> shards = new ArrayList<Integer>();
+            for (int i = 0; i < shardCount; ++i)
+            {
+                if (populated[i])
+                {
+                    shards.add(i);
+                }
+            }
+            
+            return shards;
+        }
+    }
+    
+    /**
+     * Constructor.
+     * @param space Space to conduct poll in
+     * @param mergePolicy Manner in which shard results are merged
+     * @param shardIndices Indices of shards to be polled (empty
+     * to poll the population unpartitioned)
+     * @param shardCount Number of shards partitioning the population
+     */
+    private ShardedSocialPoll(EventSpace space, MergePolicy mergePolicy, 
+        List<Integer> shardIndices, int shardCount)
+    {
+        this.space = space;
+        this.mergePolicy = mergePolicy;
+        this.shardIndices = shardIndices;
+        this.shardCount = shardCount;
+        
+        shards = new CopyOnWriteArrayList<SocialPollImpl>();
+        pendingShards = new AtomicInteger(Math.max(shardIndices.size(), 1));
+        inProgress = new AtomicBoolean(true);
+        
+        result = new CompletableFuture<Boolean>();
+        statistics = new CompletableFuture<ExperimentStatistics>();
+        
+        traceId = PollTracer.getInstance().newTrace();
+    }
+    
+    /**
+     * Merge the result of a single shard into the poll result.
+     * @param result Shard result
+     */
+    private void onShardResult(boolean result)
+    {
+        final boolean isFinalShard = pendingShards.decrementAndGet() == 0;
+        
+        // Any shard contrary to the merge policy default
+        // decides the poll, otherwise the final shard does
+        final boolean decisive = mergePolicy == MergePolicy.ALL ? !result : result;
+        if (decisive || isFinalShard)
+        {
+            finalisePollResult(result);
+        }
+    }
+    
+    /**
+     * Compute the result of the poll, ending all shards.
+     * @param result Result of the poll
+     */
+    private void finalisePollResult(boolean result)
+    {
+        if (inProgress.compareAndSet(true, false))
+        {
+            endShards();
+            completeStatistics();
+            
+            this.result.complete(result);
+            final Procedure1<? super Boolean> resultCallback = callback;
+            if (resultCallback != null)
+            {
+                resultCallback.apply(result);
+            }
+        }
+    }
+    
+    /**
+     * End the ballots of all shards.
+     */
+    private void endShards()
+    {
+        for (SocialPollImpl shard : shards)
+        {
+            shard.end();
+        }
+    }
+    
+    /**
+     * Combine the statistics of all executed shards, given
+     * every shard to be polled has been executed and ended.
+     */
+    private void completeStatistics()
+    {
+        if (!shardsExecuted)
+        {
+            return;
+        }
+        
+        final List<ExperimentStatistics> shardStatistics = new ArrayList<ExperimentStatistics>();
+        for (SocialPollImpl shard : shards)
+        {
+            shardStatistics.add(shard.getStatistics().toCompletableFuture().join());
+        }
+        
+        statistics.complete(ExperimentStatistics.combine(shardStatistics));
+    }
+    
+    @Override
+    public boolean inProgress()
+    {
+        return inProgress.get();
+    }
+    
+    @Override
+    public SynchronizedSet<BeliefQuery> getActiveSurveys()
+    {
+        Set<BeliefQuery> surveys = new HashSet<BeliefQuery>();
+        for (SocialPollImpl shard : shards)
+        {
+            surveys.addAll(shard.getActiveSurveys());
+        }
+        
+        return Collections3.unmodifiableSynchronizedSet(
+            Collections3.synchronizedSet(surveys, new Object()));
+    }
+    
+    @Override
+    public SynchronizedSet<UUID> getAgreeingRespondents()
+    {
+        Set<UUID> respondents = new HashSet<UUID>();
+        for (SocialPollImpl shard : shards)
+        {
+            respondents.addAll(shard.getAgreeingRespondents());
+        }
+        
+        return Collections3.unmodifiableSynchronizedSet(
+            Collections3.synchronizedSet(respondents, new Object()));
+    }
+    
+    @Override
+    public boolean surveyParticipants(BeliefQuery... queries)
+    {
+        return surveyParticipants(Scopes.<Address>allParticipants(), queries);
+    }
+    
+    @Override
+    public boolean surveyParticipants(Scope<Address> scope, BeliefQuery... queries)
+    {
+        return surveyParticipants(Arrays.asList(queries), scope);
+    }
+    
+    @Override
+    public boolean surveyParticipants(Collection<BeliefQuery> queries, Scope<Address> scope)
+    {
+        boolean surveyed = false;
+        for (int i = 0; i < shards.size(); ++i)
+        {
+            // Each shard surveys only its own participants, under
+            // queries attributed to its own ballot
+            Scope<Address> shardScope = shardIndices.isEmpty() ? scope :
+                new ShardScope(scope, shardIndices.get(i), shardCount);
+            surveyed |= shards.get(i).surveyParticipants(queries, shardScope);
+        }
+        
+        return surveyed;
+    }
+    
+    @Override
+    public void end()
+    {
+        cancel();
+    }
+    
+    @Override
+    public boolean cancel()
+    {
+        // Ending a poll does not produce a result
+        if (inProgress.compareAndSet(true, false))
+        {
+            endShards();
+            completeStatistics();
+            
+            result.completeExceptionally(new CancellationException("Poll ended without a result."));
+            return true;
+        }
+        
+        return false;
+    }
+    
+    @Override
+    public CompletionStage<Boolean> getResult()
+    {
+        return result;
+    }
+    
+    @Override
+    public CompletionStage<ExperimentStatistics> getStatistics()
+    {
+        return statistics;
+    }
+    
+    @Override
+    public EventSpace getSpace()
+    {
+        return space;
+    }
+    
+    @Override
+    public SynchronizedSet<UUID> getParticipants()
+    {
+        return space.getParticipants();
+    }
+    
+    @Override
+    public void onPollResult(Procedure1<? super Boolean> callback)
+    {
+        this.callback = callback;
+    }
+    
+    @Override
+    public long getTraceId()
+    {
+        return traceId;
+    }
+    
+    /**
+     * Get the manner in which shard results are merged
+     * into the poll result.
+     * @return Merge policy
+     */
+    public MergePolicy getMergePolicy()
+    {
+        return mergePolicy;
+    }
+    
+    /**
+     * Get the ballots of each polled shard.
+     * @return Shard ballots
+     */
+    public List<SocialPollBallot> getShards()
+    {
+        return Collections.<SocialPollBallot>unmodifiableList(shards);
+    }
+    
+    /**
+     * Get the number of shards yet to produce a result.
+     * @return Number of pending shards
+     */
+    public int getPendingShardCount()
+    {
+        return Math.max(pendingShards.get(), 0);
+    }
+    
+    /**
+     * Determine the shard a participant belongs to.
+     * @param participant Participant identifier
+     * @param shardCount Number of shards
+     * @return Shard index
+     */
+    static int shardOf(UUID participant, int shardCount)
+    {
+        return Math.floorMod(participant.hashCode(), shardCount);
+    }
+    
+    /**
+     * Scope restricting a survey scope to the participants
+     * of a single shard.
+     */
+    private static class ShardScope implements Scope<Address>
+    {
+        // Version UID assigned to this object for
+        // serialization purposes
+        private static final long serialVersionUID = 3270951546104512239L;
+        
+        // Survey scope being restricted (null for all participants)
+        private final Scope<Address> scope;
+        // Shard to restrict scope to, and number of shards
+        private final int shardIndex;
+        private final int shardCount;
+        
+        /**
+         * Constructor.
+         * @param scope Survey scope to restrict
+         * @param shardIndex Shard to restrict scope to
+         * @param shardCount Number of shards
+         */
+        private ShardScope(Scope<Address> scope, int shardIndex, int shardCount)
+        {
+            this.scope = scope;
+            this.shardIndex = shardIndex;
+            this.shardCount = shardCount;
+        }
+        
+        @Override
+        public boolean matches(Address address)
+        {
+            return shardOf(address.getUUID(), shardCount) == shardIndex && 
+                (scope == null || scope.matches(address));
+        }
+    }
+}
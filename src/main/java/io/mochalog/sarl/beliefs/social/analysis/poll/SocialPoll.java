@@ -18,6 +18,11 @@ package io.mochalog.sarl.beliefs.social.analysis.poll;
 
 import io.mochalog.sarl.beliefs.social.analysis.SocialExperiment;
 
+import io.sarl.lang.util.SynchronizedSet;
+
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 
 /**
@@ -33,4 +38,18 @@ public interface SocialPoll extends SocialExperiment
      * @param callback Callback function
      */
     public void onPollResult(Procedure1<? super Boolean> callback);
+    
+    /**
+     * Get the result of the poll, completing once the poll
+     * result is finalised or the poll times out.
+     * @return Pending poll result
+     */
+    public CompletionStage<Boolean> getResult();
+    
+    /**
+     * Get the respondents whose responses supported the
+     * poll hypothesis so far, such as those forming a quorum.
+     * @return Agreeing respondents
+     */
+    public SynchronizedSet<UUID> getAgreeingRespondents();
 }
\ No newline at end of file
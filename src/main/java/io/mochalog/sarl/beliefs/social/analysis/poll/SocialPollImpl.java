@@ -16,12 +16,20 @@
 
 package io.mochalog.sarl.beliefs.social.analysis.poll;
 
+import io.mochalog.sarl.beliefs.metrics.BeliefMetrics;
 import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
 import io.mochalog.sarl.beliefs.social.analysis.AbstractSocialExperiment;
 import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
 
 import io.sarl.lang.core.EventSpace;
 
+import io.sarl.lang.util.SynchronizedSet;
+
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
 
 /**
@@ -35,7 +43,9 @@ public final class SocialPollImpl extends AbstractSocialExperiment
     // which is captured during the poll
     private final ExperimentEvaluator<? super SocialPollImpl> evaluator;
     // Callback function to invoke once result has been computed
-    private Procedure1<? super Boolean> callback;
+    private volatile Procedure1<? super Boolean> callback;
+    // Result of the poll, completed once finalised
+    private final CompletableFuture<Boolean> result;
 
     /**
      * Implementation of executor service for SocialPollImpl instances.
@@ -70,7 +80,7 @@ public final class SocialPollImpl extends AbstractSocialExperiment
         @Override
         protected void onTimeout(SocialPollImpl poll)
         {
-            poll.finalisePollResult(false);
+            poll.finalisePollResult(false, true);
         }
         
         @Override
@@ -104,6 +114,8 @@ public final class SocialPollImpl extends AbstractSocialExperiment
     {
         super(space);
         this.evaluator = evaluator;
+        
+        result = new CompletableFuture<Boolean>();
     }
     
     @Override
@@ -112,6 +124,12 @@ public final class SocialPollImpl extends AbstractSocialExperiment
         evaluator.evaluate(this, response);
     }
     
+    @Override
+    protected void reevaluate()
+    {
+        evaluator.reevaluate(this);
+    }
+    
     @Override
     public void onPollResult(Procedure1<? super Boolean> callback)
     {
@@ -119,15 +137,53 @@ public final class SocialPollImpl extends AbstractSocialExperiment
     }
     
     @Override
-    public synchronized void finalisePollResult(boolean result)
+    public void finalisePollResult(boolean result)
     {
-        if (inProgress())
+        finalisePollResult(result, false);
+    }
+    
+    /**
+     * Compute the result of the poll, ending it.
+     * @param result Result of the poll
+     * @param timedOut Whether the poll ended on timing out,
+     * rather than being decided by its evaluator
+     */
+    private void finalisePollResult(boolean result, boolean timedOut)
+    {
+        // Only the first result to end the poll is reported
+        if (tryEnd())
         {
-            end();
+            BeliefMetrics.get().getExperimentCounter(getMetricName(), timedOut ? 
+                BeliefMetrics.EXPERIMENT_TIMED_OUT : BeliefMetrics.EXPERIMENT_COMPLETED).increment();
+            this.result.complete(result);
             if (callback != null)
             {
                 callback.apply(result);
             }
         }
     }
+    
+    @Override
+    protected String getMetricName()
+    {
+        return "poll";
+    }
+    
+    @Override
+    protected void onCancel()
+    {
+        result.completeExceptionally(new CancellationException("Poll ended without a result."));
+    }
+    
+    @Override
+    public CompletionStage<Boolean> getResult()
+    {
+        return result;
+    }
+    
+    @Override
+    public SynchronizedSet<UUID> getAgreeingRespondents()
+    {
+        return getPositiveResponders();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis.poll;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Helper methods for composing the results of
+ * concurrently conducted social polls.
+ */
+public class SocialPolls
+{
+    /**
+     * Await the results of all given polls.
+     * @param polls Polls to await
+     * @return Results of each poll, in the iteration order of the
+     * given polls, completing exceptionally should any poll
+     * be cancelled
+     */
+    public static CompletableFuture<List<Boolean>> allOf(Collection<? extends SocialPoll> polls)
+    {
+        final List<CompletableFuture<Boolean>> results = results(polls);
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[results.size()]))
+            .thenApply((ignored) ->
+            {
+                List<Boolean> outcomes = new ArrayList<Boolean>(results.size());
+                for (CompletableFuture<Boolean> result : results)
+                {
+                    outcomes.add(result.join());
+                }
+                
+                return outcomes;
+            });
+    }
+    
+    /**
+     * Await the result of whichever given poll
+     * completes first.
+     * @param polls Polls to await
+     * @return Result of first poll to complete
+     */
+    public static CompletableFuture<Boolean> anyOf(Collection<? extends SocialPoll> polls)
+    {
+        final List<CompletableFuture<Boolean>> results = results(polls);
+        return CompletableFuture.anyOf(results.toArray(new CompletableFuture<?>[results.size()]))
+            .thenApply((result) -> (Boolean) result);
+    }
+    
+    /**
+     * Await the first given poll to produce a positive result,
+     * cancelling all others once found.
+     * @param polls Polls to await
+     * @return True once any poll holds, or false once all
+     * polls have completed without holding
+     */
+    public static CompletableFuture<Boolean> anyHolds(Collection<? extends SocialPoll> polls)
+    {
+        final CompletableFuture<Boolean> outcome = new CompletableFuture<Boolean>();
+        final List<CompletableFuture<Boolean>> results = results(polls);
+        
+        for (CompletableFuture<Boolean> result : results)
+        {
+            result.thenAccept((holds) ->
+            {
+                if (holds && outcome.complete(true))
+                {
+                    for (SocialPoll poll : polls)
+                    {
+                        poll.cancel();
+                    }
+                }
+            });
+        }
+        
+        // Cancelled polls are not considered to hold
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[results.size()]))
+            .whenComplete((ignored, error) -> outcome.complete(false));
+        return outcome;
+    }
+    
+    /**
+     * Get the pending results of the given polls.
+     * @param polls Polls to get results of
+     * @return Pending poll results
+     */
+    private static List<CompletableFuture<Boolean>> results(Collection<? extends SocialPoll> polls)
+    {
+        List<CompletableFuture<Boolean>> results = new ArrayList<CompletableFuture<Boolean>>(polls.size());
+        for (SocialPoll poll : polls)
+        {
+            results.add(poll.getResult().toCompletableFuture());
+        }
+        
+        return results;
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Optional tracer of the lifecycle of social experiments, from
+ * execution through survey emission, answering and response
+ * evaluation. Spans are held in a fixed-size ring buffer, with
+ * the oldest overwritten once full, and may be dumped as a
+ * timeline in the Chrome trace event format.
+ * <p>
+ * Tracing is disabled by default, in which case recording a
+ * span costs a single volatile read.
+ */
+public class PollTracer
+{
+    // Default number of spans retained
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    
+    // Process-wide tracer instance
+    private static final PollTracer INSTANCE = new PollTracer(DEFAULT_CAPACITY);
+    
+    // Identifier given to untraced experiments and queries
+    public static final long UNTRACED = 0;
+    
+    // Whether spans are currently being recorded
+    private volatile boolean enabled;
+    
+    // Ring buffer of recorded spans
+    private final AtomicReferenceArray<TraceSpan> spans;
+    // Mask mapping span sequence numbers to buffer slots
+    private final int mask;
+    // Sequence number of the next span to record
+    private final AtomicLong cursor;
+    
+    // Last trace identifier assigned
+    private final AtomicLong lastTraceId;
+    
+    /**
+     * Constructor.
+     * @param capacity Number of spans to retain, rounded up
+     * to a power of two
+     */
+    public PollTracer(int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Tracer capacity must be positive.");
+        }
+        
+        final int size = Integer.highestOneBit(capacity) == capacity ? 
+            capacity : Integer.highestOneBit(capacity) << 1;
+        spans = new AtomicReferenceArray<TraceSpan>(size);
+        mask = size - 1;
+        cursor = new AtomicLong();
+        
+        lastTraceId = new AtomicLong(UNTRACED);
+    }
+    
+    /**
+     * Get the tracer instance shared by the process.
+     * @return Shared tracer
+     */
+    public static PollTracer getInstance()
+    {
+        return INSTANCE;
+    }
+    
+    /**
+     * Enable or disable the recording of spans.
+     * @param enabled Whether to record spans
+     */
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Check if spans are currently being recorded.
+     * @return True if enabled, false otherwise.
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+    
+    /**
+     * Begin a new trace, given tracing is enabled.
+     * @return Trace identifier, or UNTRACED if
+     * tracing is disabled
+     */
+    public long newTrace()
+    {
+        return enabled ? lastTraceId.incrementAndGet() : UNTRACED;
+    }
+    
+    /**
+     * Record a phase of a trace which started at the given time
+     * and ends now. Phases of untraced experiments are ignored.
+     * @param traceId Identifier of trace
+     * @param name Name of phase
+     * @param actor Agent or experiment performing phase
+     * @param startTime Monotonic start time in ns
+     */
+    public void span(long traceId, String name, UUID actor, long startTime)
+    {
+        if (traceId != UNTRACED && enabled)
+        {
+            final long now = System.nanoTime();
+            record(new TraceSpan(traceId, name, actor, startTime, now - startTime, 
+                Thread.currentThread().getId()));
+        }
+    }
+    
+    /**
+     * Record a span, overwriting the oldest span
+     * given the buffer is full.
+     * @param span Span to record
+     */
+    public void record(TraceSpan span)
+    {
+        final long sequence = cursor.getAndIncrement();
+        spans.set((int) (sequence & mask), span);
+    }
+    
+    /**
+     * Get the retained spans of a trace, ordered by start time.
+     * @param traceId Identifier of trace, or UNTRACED to
+     * get the spans of all traces
+     * @return Spans of trace
+     */
+    public List<TraceSpan> getSpans(long traceId)
+    {
+        List<TraceSpan> traced = new ArrayList<TraceSpan>();
+        for (int i = 0; i < spans.length(); ++i)
+        {
+            final TraceSpan span = spans.get(i);
+            if (span != null && (traceId == UNTRACED || span.getTraceId() == traceId))
+            {
+                traced.add(span);
+            }
+        }
+        
+        traced.sort(Comparator.comparingLong(TraceSpan::getStartTime));
+        return traced;
+    }
+    
+    /**
+     * Discard all retained spans.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < spans.length(); ++i)
+        {
+            spans.set(i, null);
+        }
+    }
+    
+    /**
+     * Write the retained spans of a trace to a file as a timeline
+     * in the Chrome trace event format, viewable in chrome://tracing.
+     * @param traceId Identifier of trace, or UNTRACED to
+     * write the spans of all traces
+     * @param path Path of file to write
+     * @throws IOException File could not be written
+     */
+    public void writeChromeTrace(long traceId, Path path) throws IOException
+    {
+        final List<TraceSpan> traced = getSpans(traceId);
+        // Timestamps are made relative to the first span
+        final long origin = traced.isEmpty() ? 0 : traced.get(0).getStartTime();
+        
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8))
+        {
+            writer.write("{\"traceEvents\":[");
+            for (int i = 0; i < traced.size(); ++i)
+            {
+                final TraceSpan span = traced.get(i);
+                if (i > 0)
+                {
+                    writer.write(',');
+                }
+                
+                writer.write("\n{\"name\":\"" + span.getName() + "\",\"ph\":\"X\"" + 
+                    ",\"ts\":" + toMicros(span.getStartTime() - origin) + 
+                    ",\"dur\":" + toMicros(span.getDuration()) + 
+                    ",\"pid\":" + span.getTraceId() + ",\"tid\":" + span.getThreadId() + 
+                    ",\"args\":{\"actor\":\"" + span.getActor() + "\"}}");
+            }
+            writer.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+        }
+    }
+    
+    /**
+     * Convert a time in ns to fractional us, as expected
+     * by the Chrome trace event format.
+     * @param nanos Time in ns
+     * @return Time in us
+     */
+    private static String toMicros(long nanos)
+    {
+        return String.format("%d.%03d", nanos / 1000, Math.abs(nanos % 1000));
+    }
+}
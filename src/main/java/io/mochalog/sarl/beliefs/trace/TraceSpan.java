@@ -0,0 +1,122 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.trace;
+
+import java.util.UUID;
+
+/**
+ * Timed phase of the lifecycle of a traced social experiment,
+ * such as the emission of a survey or the evaluation of
+ * a response.
+ */
+public final class TraceSpan
+{
+    // Identifier of the trace the span belongs to
+    private final long traceId;
+    // Name of the phase spanned
+    private final String name;
+    // Agent or experiment performing the phase (or null)
+    private final UUID actor;
+    // Monotonic time in ns at which the phase started
+    private final long startTime;
+    // Time in ns the phase took
+    private final long duration;
+    // Identifier of the thread performing the phase
+    private final long threadId;
+    
+    /**
+     * Constructor.
+     * @param traceId Identifier of trace
+     * @param name Name of phase
+     * @param actor Agent or experiment performing phase
+     * @param startTime Monotonic start time in ns
+     * @param duration Time in ns
+     * @param threadId Identifier of performing thread
+     */
+    public TraceSpan(long traceId, String name, UUID actor, long startTime, 
+        long duration, long threadId)
+    {
+        this.traceId = traceId;
+        this.name = name;
+        this.actor = actor;
+        this.startTime = startTime;
+        this.duration = duration;
+        this.threadId = threadId;
+    }
+    
+    /**
+     * Get the identifier of the trace the span belongs to.
+     * @return Trace identifier
+     */
+    public long getTraceId()
+    {
+        return traceId;
+    }
+    
+    /**
+     * Get the name of the phase spanned.
+     * @return Phase name
+     */
+    public String getName()
+    {
+        return name;
+    }
+    
+    /**
+     * Get the agent or experiment performing the phase.
+     * @return Actor identifier, or null if unknown
+     */
+    public UUID getActor()
+    {
+        return actor;
+    }
+    
+    /**
+     * Get the monotonic time at which the phase started,
+     * comparable only within the same process.
+     * @return Time in ns
+     */
+    public long getStartTime()
+    {
+        return startTime;
+    }
+    
+    /**
+     * Get the time the phase took.
+     * @return Time in ns
+     */
+    public long getDuration()
+    {
+        return duration;
+    }
+    
+    /**
+     * Get the identifier of the thread performing the phase.
+     * @return Thread identifier
+     */
+    public long getThreadId()
+    {
+        return threadId;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "TraceSpan [traceId=" + traceId + ", name=" + name + ", actor=" + actor + 
+            ", startTime=" + startTime + ", duration=" + duration + "]";
+    }
+}
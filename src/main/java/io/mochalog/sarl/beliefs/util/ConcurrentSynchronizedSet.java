@@ -0,0 +1,117 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.util;
+
+import io.sarl.lang.util.SynchronizedSet;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Synchronized set backed by a concurrent set, such that
+ * individual operations never contend on a monitor. Iteration
+ * is weakly consistent, and needs not be guarded by the mutex,
+ * though doing so remains harmless.
+ * @param <E> Element type
+ */
+public class ConcurrentSynchronizedSet<E> extends AbstractSet<E> implements SynchronizedSet<E>
+{
+    // Underlying concurrent set
+    private final Set<E> elements;
+    // Mutex exposed to callers guarding compound operations
+    private final Object mutex;
+    
+    /**
+     * Constructor.
+     */
+    public ConcurrentSynchronizedSet()
+    {
+        this(ConcurrentHashMap.<E>newKeySet(), new Object());
+    }
+    
+    /**
+     * Constructor.
+     * @param elements Underlying concurrent set
+     * @param mutex Mutex exposed to callers
+     */
+    private ConcurrentSynchronizedSet(Set<E> elements, Object mutex)
+    {
+        this.elements = elements;
+        this.mutex = mutex;
+    }
+    
+    /**
+     * Get a read-only view of the set, reflecting
+     * subsequent changes.
+     * @return Unmodifiable view
+     */
+    public ConcurrentSynchronizedSet<E> unmodifiableView()
+    {
+        return new ConcurrentSynchronizedSet<E>(Collections.unmodifiableSet(elements), mutex);
+    }
+    
+    @Override
+    public Object mutex()
+    {
+        return mutex;
+    }
+    
+    @Override
+    public int size()
+    {
+        return elements.size();
+    }
+    
+    @Override
+    public boolean isEmpty()
+    {
+        return elements.isEmpty();
+    }
+    
+    @Override
+    public boolean contains(Object element)
+    {
+        return elements.contains(element);
+    }
+    
+    @Override
+    public boolean add(E element)
+    {
+        return elements.add(element);
+    }
+    
+    @Override
+    public boolean remove(Object element)
+    {
+        return elements.remove(element);
+    }
+    
+    @Override
+    public void clear()
+    {
+        elements.clear();
+    }
+    
+    @Override
+    public Iterator<E> iterator()
+    {
+        return elements.iterator();
+    }
+}
@@ -0,0 +1,321 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reader of line-oriented fact files, holding a single fact
+ * terminated by a full stop per line. The file is memory mapped
+ * in newline-aligned chunks which are split into facts in
+ * parallel, with facts delivered in file order.
+ * <p>
+ * Only decoding and splitting are parallel. Facts are delivered
+ * as text, and are parsed as terms by the knowledge base as
+ * each is adopted.
+ * <p>
+ * Blank lines, comment lines (beginning with '%'), trailing
+ * comments and directive lines (beginning with ':-') are skipped.
+ */
+public class MappedFactReader
+{
+    // Default number of bytes to map per chunk
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    
+    /**
+     * Consumer of parsed fact chunks.
+     */
+    @FunctionalInterface
+    public static interface ChunkConsumer
+    {
+        /**
+         * Accept the facts parsed from a single chunk.
+         * @param facts Facts in chunk, without terminating
+         * full stops
+         * @param bytesRead Number of bytes read from the file
+         * up to and including the chunk
+         * @param totalBytes Size of the file in bytes
+         */
+        public void accept(List<String> facts, long bytesRead, long totalBytes);
+    }
+    
+    // File to read facts from
+    private final Path path;
+    // Number of bytes to map per chunk
+    private final int chunkSize;
+    
+    /**
+     * Constructor.
+     * @param path File to read facts from
+     */
+    public MappedFactReader(Path path)
+    {
+        this(path, DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Constructor.
+     * @param path File to read facts from
+     * @param chunkSize Number of bytes to map per chunk, bounding
+     * the length of a single line
+     */
+    public MappedFactReader(Path path, int chunkSize)
+    {
+        if (chunkSize <= 0)
+        {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        
+        this.path = path;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Read all facts in the file, parsing chunks on the given
+     * executor and delivering them to the consumer in file order
+     * on the calling thread.
+     * @param executor Executor to parse chunks on
+     * @param parallelism Maximum number of chunks to parse
+     * at once
+     * @param consumer Consumer of parsed chunks
+     * @return Number of bytes read
+     * @throws IOException File could not be read, or a line
+     * exceeds the chunk size
+     */
+    public long read(ExecutorService executor, int parallelism, ChunkConsumer consumer) 
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            final long totalBytes = channel.size();
+            // Chunks being parsed, in file order, alongside the
+            // file position at which each ends
+            final Deque<Future<List<String>>> pending = new ArrayDeque<Future<List<String>>>();
+            final Deque<Long> pendingEnds = new ArrayDeque<Long>();
+            
+            long position = 0;
+            while (position < totalBytes)
+            {
+                final MappedByteBuffer chunk = mapChunk(channel, position, totalBytes);
+                position += chunk.limit();
+                
+                pending.add(executor.submit(() -> parseChunk(chunk)));
+                pendingEnds.add(position);
+                
+                // Bound the number of chunks held in memory at once
+                if (pending.size() >= parallelism)
+                {
+                    consumer.accept(await(pending.poll()), pendingEnds.poll(), totalBytes);
+                }
+            }
+            
+            while (!pending.isEmpty())
+            {
+                consumer.accept(await(pending.poll()), pendingEnds.poll(), totalBytes);
+            }
+            
+            return totalBytes;
+        }
+    }
+    
+    /**
+     * Map the next chunk of the file, ending at the last
+     * newline within the chunk size.
+     * @param channel File channel
+     * @param position File position at which the chunk begins
+     * @param totalBytes Size of the file in bytes
+     * @return Mapped chunk, limited to whole lines
+     * @throws IOException Chunk could not be mapped, or holds
+     * no whole line
+     */
+    private MappedByteBuffer mapChunk(FileChannel channel, long position, long totalBytes) 
+        throws IOException
+    {
+        final long length = Math.min(chunkSize, totalBytes - position);
+        final MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        
+        // Final chunk of the file need not end on a newline
+        if (position + length == totalBytes)
+        {
+            return chunk;
+        }
+        
+        int end = (int) length - 1;
+        while (end >= 0 && chunk.get(end) != '\n')
+        {
+            --end;
+        }
+        
+        if (end < 0)
+        {
+            throw new IOException("Line at byte " + position + " exceeds chunk size of " + 
+                chunkSize + " bytes.");
+        }
+        
+        chunk.limit(end + 1);
+        return chunk;
+    }
+    
+    /**
+     * Parse the facts held in a chunk of the file.
+     * @param chunk Mapped chunk
+     * @return Facts in chunk, without terminating full stops
+     * @throws IOException Chunk is not valid UTF-8
+     */
+    private static List<String> parseChunk(MappedByteBuffer chunk) throws IOException
+    {
+        final CharBuffer text = StandardCharsets.UTF_8.newDecoder().decode(chunk);
+        final List<String> facts = new ArrayList<String>();
+        
+        int start = 0;
+        final int length = text.length();
+        while (start < length)
+        {
+            int end = start;
+            while (end < length && text.charAt(end) != '\n')
+            {
+                ++end;
+            }
+            
+            final String fact = parseLine(text.subSequence(start, end).toString());
+            if (fact != null)
+            {
+                facts.add(fact);
+            }
+            
+            start = end + 1;
+        }
+        
+        return facts;
+    }
+    
+    /**
+     * Parse a single line of the file.
+     * @param line Line to parse
+     * @return Fact held by line, or null if the line
+     * holds no fact
+     */
+    private static String parseLine(String line)
+    {
+        String fact = stripComment(line).trim();
+        if (fact.isEmpty() || fact.startsWith("%") || fact.startsWith(":-"))
+        {
+            return null;
+        }
+        
+        if (fact.endsWith("."))
+        {
+            fact = fact.substring(0, fact.length() - 1).trim();
+        }
+        
+        return fact.isEmpty() ? null : fact;
+    }
+    
+    /**
+     * Strip a trailing comment from a line, ignoring any
+     * '%' within a quoted atom or string, or given as a
+     * character code (0'%).
+     * @param line Line to strip
+     * @return Line preceding any trailing comment
+     */
+    static String stripComment(String line)
+    {
+        // Quote character of the quoted text being scanned,
+        // or zero given none
+        char quote = 0;
+        
+        final int length = line.length();
+        for (int i = 0; i < length; ++i)
+        {
+            final char c = line.charAt(i);
+            if (quote != 0)
+            {
+                if (c == '\\')
+                {
+                    // Skip escaped character
+                    ++i;
+                }
+                else if (c == quote)
+                {
+                    quote = 0;
+                }
+            }
+            else if (c == '%')
+            {
+                return line.substring(0, i);
+            }
+            else if (c == '\'' && i > 0 && line.charAt(i - 1) == '0' && 
+                (i < 2 || !Character.isLetterOrDigit(line.charAt(i - 2))))
+            {
+                // Skip the character of a character code
+                ++i;
+            }
+            else if (c == '\'' || c == '"' || c == '`')
+            {
+                quote = c;
+            }
+        }
+        
+        return line;
+    }
+    
+    /**
+     * Wait for a chunk to be parsed.
+     * @param parse Pending chunk parse
+     * @return Facts in chunk
+     * @throws IOException Chunk could not be parsed, or
+     * the wait was interrupted
+     */
+    private static List<String> await(Future<List<String>> parse) throws IOException
+    {
+        try
+        {
+            return parse.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing fact file.");
+        }
+        catch (ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            
+            throw new IOException("Failed to parse fact file.", cause);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.util;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Immutable assignment of dense integer indices to a fixed
+ * group of participants, allowing sets of participants to
+ * be held as bitmaps.
+ */
+public final class ParticipantIndex
+{
+    // Participants, by index
+    private final UUID[] participants;
+    // Number of indexed participants
+    private final int size;
+    
+    // Open-addressed hash table of participant indices,
+    // offset by one such that zero marks an empty slot
+    private final int[] slots;
+    // Mask wrapping hashes to the table size
+    private final int mask;
+    
+    /**
+     * Constructor. Duplicate participants are
+     * assigned a single index.
+     * @param participants Participants to index
+     */
+    public ParticipantIndex(Collection<UUID> participants)
+    {
+        this.participants = new UUID[participants.size()];
+        
+        // Keep the table at most half full
+        final int capacity = Integer.highestOneBit(Math.max(participants.size(), 1)) << 2;
+        slots = new int[capacity];
+        mask = capacity - 1;
+        
+        int indexed = 0;
+        for (UUID participant : participants)
+        {
+            int slot = slotOf(participant);
+            if (slots[slot] == 0)
+            {
+                this.participants[indexed++] = participant;
+                slots[slot] = indexed;
+            }
+        }
+        
+        size = indexed;
+    }
+    
+    /**
+     * Find the table slot holding, or due to hold,
+     * a participant.
+     * @param participant Participant identifier
+     * @return Slot position
+     */
+    private int slotOf(Object participant)
+    {
+        int hash = participant.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (slots[slot] != 0 && !participants[slots[slot] - 1].equals(participant))
+        {
+            slot = (slot + 1) & mask;
+        }
+        
+        return slot;
+    }
+    
+    /**
+     * Get the index assigned to a participant.
+     * @param participant Participant identifier
+     * @return Participant index, or -1 if not indexed
+     */
+    public int indexOf(Object participant)
+    {
+        if (!(participant instanceof UUID))
+        {
+            return -1;
+        }
+        
+        return slots[slotOf(participant)] - 1;
+    }
+    
+    /**
+     * Get the participant assigned a given index.
+     * @param index Participant index
+     * @return Participant identifier
+     */
+    public UUID get(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("No participant at index " + index + ".");
+        }
+        
+        return participants[index];
+    }
+    
+    /**
+     * Get the number of indexed participants.
+     * @return Index size
+     */
+    public int size()
+    {
+        return size;
+    }
+}
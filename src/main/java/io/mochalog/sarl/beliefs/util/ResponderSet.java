@@ -0,0 +1,414 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.util;
+
+import io.sarl.lang.util.SynchronizedSet;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent set of participants held as a bitmap over a
+ * participant index, costing a single bit per indexed
+ * participant. Participants outside of the index are held
+ * in a concurrent overflow set.
+ * <p>
+ * Once the index is attached, operations never contend on a
+ * monitor. Prior to attachment, operations are serialised with
+ * attachment on the mutex, such that no participant is lost
+ * while moving into the bitmap. Iteration is weakly consistent.
+ * The index may be attached once, after which the set is held
+ * as a bitmap.
+ */
+public class ResponderSet extends AbstractSet<UUID> implements SynchronizedSet<UUID>
+{
+    // Index of participants held in the bitmap (null
+    // until attached)
+    private volatile ParticipantIndex index;
+    // Bitmap of indexed participants in the set
+    private volatile AtomicLongArray bits;
+    // Number of indexed participants in the set
+    private final AtomicInteger indexedCount;
+    
+    // Participants in the set not held in the index
+    private final Set<UUID> overflow;
+    // Mutex exposed to callers guarding compound operations
+    private final Object mutex;
+    
+    // Read-only view of the set
+    private final SynchronizedSet<UUID> view;
+    
+    /**
+     * Constructor.
+     */
+    public ResponderSet()
+    {
+        indexedCount = new AtomicInteger();
+        overflow = ConcurrentHashMap.newKeySet();
+        mutex = new Object();
+        view = new UnmodifiableView();
+    }
+    
+    /**
+     * Attach the participant index, after which indexed
+     * participants are held in the bitmap.
+     * @param participantIndex Participant index
+     * @param full Whether all indexed participants should
+     * be added to the set
+     * @throws IllegalStateException Index already attached
+     */
+    public void attachIndex(ParticipantIndex participantIndex, boolean full)
+    {
+        final int size = participantIndex.size();
+        final AtomicLongArray bitmap = new AtomicLongArray((size + 63) >>> 6);
+        if (full)
+        {
+            for (int i = 0; i < size >>> 6; ++i)
+            {
+                bitmap.set(i, -1L);
+            }
+            
+            if ((size & 63) != 0)
+            {
+                bitmap.set(size >>> 6, (1L << (size & 63)) - 1);
+            }
+        }
+        
+        synchronized (mutex)
+        {
+            if (index != null)
+            {
+                throw new IllegalStateException("Participant index already attached.");
+            }
+            
+            bits = bitmap;
+            if (full)
+            {
+                indexedCount.set(size);
+            }
+            
+            // Move indexed participants added prior to
+            // attachment into the bitmap
+            for (UUID participant : overflow)
+            {
+                int i = participantIndex.indexOf(participant);
+                if (i >= 0 && overflow.remove(participant))
+                {
+                    setBit(i);
+                }
+            }
+            
+            // Index is published once the bitmap is complete,
+            // such that operations observing it need not lock
+            index = participantIndex;
+        }
+    }
+    
+    /**
+     * Get a read-only view of the set, reflecting
+     * subsequent changes.
+     * @return Unmodifiable view
+     */
+    public SynchronizedSet<UUID> unmodifiableView()
+    {
+        return view;
+    }
+    
+    /**
+     * Set a bit of the bitmap.
+     * @param i Bitmap position
+     * @return True if bit was previously clear, false otherwise.
+     */
+    private boolean setBit(int i)
+    {
+        final AtomicLongArray bitmap = bits;
+        final int word = i >>> 6;
+        final long mask = 1L << (i & 63);
+        
+        long current;
+        do
+        {
+            current = bitmap.get(word);
+            if ((current & mask) != 0)
+            {
+                return false;
+            }
+        }
+        while (!bitmap.compareAndSet(word, current, current | mask));
+        
+        indexedCount.incrementAndGet();
+        return true;
+    }
+    
+    /**
+     * Clear a bit of the bitmap.
+     * @param i Bitmap position
+     * @return True if bit was previously set, false otherwise.
+     */
+    private boolean clearBit(int i)
+    {
+        final AtomicLongArray bitmap = bits;
+        final int word = i >>> 6;
+        final long mask = 1L << (i & 63);
+        
+        long current;
+        do
+        {
+            current = bitmap.get(word);
+            if ((current & mask) == 0)
+            {
+                return false;
+            }
+        }
+        while (!bitmap.compareAndSet(word, current, current & ~mask));
+        
+        indexedCount.decrementAndGet();
+        return true;
+    }
+    
+    @Override
+    public Object mutex()
+    {
+        return mutex;
+    }
+    
+    @Override
+    public int size()
+    {
+        return indexedCount.get() + overflow.size();
+    }
+    
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+    
+    @Override
+    public boolean contains(Object participant)
+    {
+        if (index == null)
+        {
+            synchronized (mutex)
+            {
+                if (index == null)
+                {
+                    return overflow.contains(participant);
+                }
+            }
+        }
+        
+        final int i = index.indexOf(participant);
+        if (i >= 0)
+        {
+            return (bits.get(i >>> 6) & (1L << (i & 63))) != 0;
+        }
+        
+        return overflow.contains(participant);
+    }
+    
+    @Override
+    public boolean add(UUID participant)
+    {
+        if (index == null)
+        {
+            synchronized (mutex)
+            {
+                // Index cannot be attached while the
+                // participant is added
+                if (index == null)
+                {
+                    return overflow.add(participant);
+                }
+            }
+        }
+        
+        final int i = index.indexOf(participant);
+        return i >= 0 ? setBit(i) : overflow.add(participant);
+    }
+    
+    @Override
+    public boolean remove(Object participant)
+    {
+        if (index == null)
+        {
+            synchronized (mutex)
+            {
+                if (index == null)
+                {
+                    return overflow.remove(participant);
+                }
+            }
+        }
+        
+        final int i = index.indexOf(participant);
+        return i >= 0 ? clearBit(i) : overflow.remove(participant);
+    }
+    
+    @Override
+    public Iterator<UUID> iterator()
+    {
+        return new ResponderIterator();
+    }
+    
+    /**
+     * Iterator over indexed participants in word order,
+     * followed by those in the overflow set.
+     */
+    private class ResponderIterator implements Iterator<UUID>
+    {
+        // Index and bitmap at the time of iterator creation
+        private final ParticipantIndex participantIndex;
+        private final AtomicLongArray bitmap;
+        
+        // Current bitmap word, and bits yet to be visited
+        private int word;
+        private long remaining;
+        
+        // Iterator over overflow set
+        private final Iterator<UUID> overflowIterator;
+        // Participant last returned
+        private UUID last;
+        
+        /**
+         * Constructor.
+         */
+        private ResponderIterator()
+        {
+            participantIndex = index;
+            bitmap = participantIndex == null ? null : bits;
+            
+            word = -1;
+            overflowIterator = overflow.iterator();
+        }
+        
+        @Override
+        public boolean hasNext()
+        {
+            if (bitmap != null)
+            {
+                while (remaining == 0 && word + 1 < bitmap.length())
+                {
+                    remaining = bitmap.get(++word);
+                }
+                
+                if (remaining != 0)
+                {
+                    return true;
+                }
+            }
+            
+            return overflowIterator.hasNext();
+        }
+        
+        @Override
+        public UUID next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException("No further participants in set.");
+            }
+            
+            if (remaining != 0)
+            {
+                final int bit = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                last = participantIndex.get((word << 6) + bit);
+            }
+            else
+            {
+                last = overflowIterator.next();
+            }
+            
+            return last;
+        }
+        
+        @Override
+        public void remove()
+        {
+            if (last == null)
+            {
+                throw new IllegalStateException("No participant to remove.");
+            }
+            
+            ResponderSet.this.remove(last);
+            last = null;
+        }
+    }
+    
+    /**
+     * Read-only view of the responder set.
+     */
+    private class UnmodifiableView extends AbstractSet<UUID> implements SynchronizedSet<UUID>
+    {
+        @Override
+        public Object mutex()
+        {
+            return mutex;
+        }
+        
+        @Override
+        public int size()
+        {
+            return ResponderSet.this.size();
+        }
+        
+        @Override
+        public boolean contains(Object participant)
+        {
+            return ResponderSet.this.contains(participant);
+        }
+        
+        @Override
+        public Iterator<UUID> iterator()
+        {
+            final Iterator<UUID> iterator = ResponderSet.this.iterator();
+            return new Iterator<UUID>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+                
+                @Override
+                public UUID next()
+                {
+                    return iterator.next();
+                }
+            };
+        }
+        
+        @Override
+        public boolean add(UUID participant)
+        {
+            throw new UnsupportedOperationException("Responder set view is read-only.");
+        }
+        
+        @Override
+        public boolean remove(Object participant)
+        {
+            throw new UnsupportedOperationException("Responder set view is read-only.");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.util;
+
+import io.sarl.lang.core.Address;
+import io.sarl.lang.core.EventSpace;
+import io.sarl.lang.core.SpaceID;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of event spaces resolved from their identifiers, along
+ * with the address held by a single participant in each.
+ * <p>
+ * Entries are never evicted on their own, and should be
+ * discarded once the participant leaves the context the
+ * spaces belong to.
+ */
+public class SpaceResolutionCache
+{
+    // Spaces, by identifier
+    private final Map<SpaceID, EventSpace> spaces;
+    // Addresses of the participant, by identifier of
+    // the space addressed
+    private final Map<SpaceID, Address> addresses;
+    
+    /**
+     * Constructor.
+     */
+    public SpaceResolutionCache()
+    {
+        spaces = new ConcurrentHashMap<>();
+        addresses = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Get the space with the given identifier, resolving
+     * it on first access.
+     * @param spaceId Space identifier
+     * @param resolver Resolution of the space, applied
+     * only if the space is not cached
+     * @return Event space
+     */
+    public EventSpace getSpace(SpaceID spaceId, Function<SpaceID, EventSpace> resolver)
+    {
+        EventSpace space = spaces.get(spaceId);
+        if (space == null)
+        {
+            // Resolution failures propagate without
+            // caching anything
+            space = spaces.computeIfAbsent(spaceId, resolver);
+        }
+        
+        return space;
+    }
+    
+    /**
+     * Get the address of the participant in the given
+     * space, fetching it from the space on first access.
+     * @param space Space addressed
+     * @param participant Participant identifier, which must
+     * be the same across all calls
+     * @return Participant address, or null if the participant
+     * is not a member of the space
+     */
+    public Address getAddress(EventSpace space, UUID participant)
+    {
+        final SpaceID spaceId = space.getSpaceID();
+        
+        Address address = addresses.get(spaceId);
+        if (address == null)
+        {
+            // Absence of membership is not cached, given
+            // the participant may yet join the space
+            address = space.getAddress(participant);
+            if (address != null)
+            {
+                addresses.put(spaceId, address);
+            }
+        }
+        
+        return address;
+    }
+    
+    /**
+     * Discard all cached spaces, and addresses within
+     * them, belonging to the given context.
+     * @param contextId Context identifier
+     */
+    public void forgetContext(UUID contextId)
+    {
+        spaces.keySet().removeIf((spaceId) -> spaceId.getContextID().equals(contextId));
+        addresses.keySet().removeIf((spaceId) -> spaceId.getContextID().equals(contextId));
+    }
+    
+    /**
+     * Discard a cached space, and the address within it.
+     * @param spaceId Space identifier
+     */
+    public void forgetSpace(SpaceID spaceId)
+    {
+        spaces.remove(spaceId);
+        addresses.remove(spaceId);
+    }
+    
+    /**
+     * Get the number of spaces currently cached.
+     * @return Cache size
+     */
+    public int size()
+    {
+        return spaces.size();
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import static org.junit.Assume.assumeNoException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of belief batches, including their atomic
+ * application to a knowledge base. Tests requiring a
+ * knowledge base are skipped where SWI-Prolog is unavailable.
+ */
+public class BeliefBatchTest
+{
+    @Test
+    public void holdsChangesInOrder()
+    {
+        BeliefBatch batch = new BeliefBatch()
+            .dropAll("fact(_)")
+            .adoptAll(Arrays.asList("fact(1)", "fact(2)"))
+            .adopt("first(@A)", "a")
+            .drop("fact(1)");
+        
+        List<BeliefBatch.Item> items = batch.getItems();
+        assertEquals(5, batch.size());
+        assertEquals(BeliefBatch.Operation.DROP_ALL, items.get(0).operation);
+        assertEquals(BeliefBatch.Operation.ADOPT_LAST, items.get(1).operation);
+        assertEquals("fact(2)", items.get(2).belief);
+        assertEquals(BeliefBatch.Operation.ADOPT_FIRST, items.get(3).operation);
+        assertArrayEquals(new Object[] { "a" }, items.get(3).args);
+        assertEquals(BeliefBatch.Operation.DROP, items.get(4).operation);
+    }
+    
+    @Test
+    public void summarisesChangeStatuses()
+    {
+        BeliefBatchResult result = new BeliefBatchResult(new boolean[] { true, false, true }, false);
+        
+        assertEquals(3, result.size());
+        assertEquals(2, result.getSuccessCount());
+        assertFalse(result.getStatus(1));
+        assertFalse(result.isSuccessful());
+        
+        // Rolled back batches are unsuccessful regardless
+        // of their statuses
+        assertFalse(new BeliefBatchResult(new boolean[] { true }, true).isSuccessful());
+        assertTrue(new BeliefBatchResult(new boolean[] { true }, false).isSuccessful());
+    }
+    
+    @Test
+    public void rollsBackAtomicBatchOnFailure()
+    {
+        BasicBeliefIntrospection beliefs = createBeliefs();
+        beliefs.adoptLast("fact(1)");
+        beliefs.adoptLast("fact(2)");
+        
+        BeliefBatch batch = new BeliefBatch()
+            .dropAll("fact(_)")
+            .adoptLast("fact(3)")
+            .adopt("other(a)")
+            .drop("missing(x)");
+        BeliefBatchResult result = beliefs.applyBatch(batch, true);
+        
+        assertTrue(result.isRolledBack());
+        // Changes reverted by the rollback were not applied
+        assertEquals(0, result.getSuccessCount());
+        
+        // Prior beliefs are restored in their original order,
+        // and beliefs adopted by the batch are dropped
+        assertTrue(beliefs.believes("findall(X, fact(X), [1, 2])"));
+        assertFalse(beliefs.believes("other(a)"));
+    }
+    
+    @Test
+    public void keepsChangesOfNonAtomicBatchOnFailure()
+    {
+        BasicBeliefIntrospection beliefs = createBeliefs();
+        beliefs.adoptLast("fact(1)");
+        
+        BeliefBatch batch = new BeliefBatch()
+            .adoptLast("fact(2)")
+            .drop("missing(x)");
+        BeliefBatchResult result = beliefs.applyBatch(batch, false);
+        
+        assertFalse(result.isRolledBack());
+        assertEquals(1, result.getSuccessCount());
+        assertTrue(beliefs.believes("findall(X, fact(X), [1, 2])"));
+    }
+    
+    @Test
+    public void appliesSuccessfulAtomicBatch()
+    {
+        BasicBeliefIntrospection beliefs = createBeliefs();
+        beliefs.adoptLast("fact(1)");
+        
+        BeliefBatchResult result = beliefs.replaceAll("fact(_)", Arrays.asList("fact(2)", "fact(3)"));
+        
+        assertTrue(result.isSuccessful());
+        assertTrue(beliefs.believes("findall(X, fact(X), [2, 3])"));
+        
+        // A later failing batch reverts only its own changes
+        result = beliefs.applyBatch(new BeliefBatch().adoptLast("fact(4)").drop("missing(x)"), true);
+        assertTrue(result.isRolledBack());
+        assertTrue(beliefs.believes("findall(X, fact(X), [2, 3])"));
+    }
+    
+    @Test
+    public void keepsClausesOutsideRolledBackBatch()
+    {
+        BasicBeliefIntrospection beliefs = createBeliefs();
+        beliefs.adoptLast("fact(1)");
+        beliefs.adoptLast("fact(2)");
+        
+        BeliefBatch batch = new BeliefBatch()
+            .adoptLast("fact(3)")
+            .drop("fact(1)")
+            .adoptFirst("fact(0)")
+            .drop("missing(x)");
+        assertTrue(beliefs.applyBatch(batch, true).isRolledBack());
+        
+        // Clause dropped by the batch is restored, and clauses
+        // never changed by the batch are left in place
+        assertTrue(beliefs.believes("findall(X, fact(X), [1, 2])"));
+    }
+    
+    @Test
+    public void reportsStatusOfEachChangeOfPartialBatch()
+    {
+        BasicBeliefIntrospection beliefs = createBeliefs();
+        
+        BeliefBatch batch = new BeliefBatch()
+            .adoptLast("fact(1)")
+            .drop("missing(x)")
+            .adoptLast("fact(")
+            .drop("fact(1)");
+        BeliefBatchResult result = beliefs.applyBatch(batch, false);
+        
+        // Malformed beliefs fail without failing the batch
+        assertTrue(result.getStatus(0));
+        assertFalse(result.getStatus(1));
+        assertFalse(result.getStatus(2));
+        assertTrue(result.getStatus(3));
+        assertFalse(beliefs.believes("fact(_)"));
+    }
+    
+    /**
+     * Create beliefs backed by a fresh knowledge base,
+     * skipping the test given SWI-Prolog is unavailable.
+     * @return Belief introspection skill
+     */
+    private static BasicBeliefIntrospection createBeliefs()
+    {
+        try
+        {
+            return new BasicBeliefIntrospection(UUID.randomUUID());
+        }
+        catch (LinkageError | RuntimeException e)
+        {
+            assumeNoException(e);
+            return null;
+        }
+    }
+}
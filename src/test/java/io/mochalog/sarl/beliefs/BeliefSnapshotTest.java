@@ -0,0 +1,111 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs;
+
+import static org.junit.Assert.assertTrue;
+
+import static org.junit.Assume.assumeNoException;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests of saving and restoring knowledge base snapshots.
+ * Tests are skipped where SWI-Prolog is unavailable.
+ */
+public class BeliefSnapshotTest
+{
+    // Folder holding snapshots saved by each test
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void restoresSnapshotIntoEmptyKnowledgeBase() throws IOException
+    {
+        BasicBeliefIntrospection beliefs = createBeliefs();
+        beliefs.adoptLast("fact(1)");
+        beliefs.adoptLast("fact(2)");
+        beliefs.adoptLast("(rule(X) :- fact(X))");
+        
+        final String path = snapshotPath();
+        assertTrue(beliefs.saveSnapshot(path));
+        
+        BasicBeliefIntrospection restored = createBeliefs();
+        assertTrue(restored.loadSnapshot(path));
+        assertTrue(restored.believes("findall(X, fact(X), [1, 2])"));
+        assertTrue(restored.believes("findall(X, rule(X), [1, 2])"));
+    }
+    
+    @Test
+    public void replacesPredicatesHeldInSnapshot() throws IOException
+    {
+        BasicBeliefIntrospection beliefs = createBeliefs();
+        beliefs.adoptLast("fact(1)");
+        beliefs.adoptLast("fact(2)");
+        
+        final String path = snapshotPath();
+        assertTrue(beliefs.saveSnapshot(path));
+        
+        // Changes since the snapshot are discarded on restoring
+        // it, without duplicating the beliefs it holds
+        beliefs.adoptLast("fact(3)");
+        beliefs.adoptLast("other(a)");
+        assertTrue(beliefs.loadSnapshot(path));
+        assertTrue(beliefs.believes("findall(X, fact(X), [1, 2])"));
+        
+        // Predicates absent from the snapshot are left unchanged
+        assertTrue(beliefs.believes("other(a)"));
+        
+        // Restoring again leaves the knowledge base unchanged
+        assertTrue(beliefs.loadSnapshot(path));
+        assertTrue(beliefs.believes("findall(X, fact(X), [1, 2])"));
+    }
+    
+    /**
+     * Get a path at which to save a snapshot.
+     * @return Snapshot path
+     * @throws IOException Temporary folder could not be created
+     */
+    private String snapshotPath() throws IOException
+    {
+        return new File(folder.getRoot(), "beliefs.snapshot").getPath();
+    }
+    
+    /**
+     * Create beliefs backed by a fresh knowledge base,
+     * skipping the test given SWI-Prolog is unavailable.
+     * @return Belief introspection skill
+     */
+    private static BasicBeliefIntrospection createBeliefs()
+    {
+        try
+        {
+            return new BasicBeliefIntrospection(UUID.randomUUID());
+        }
+        catch (LinkageError | RuntimeException e)
+        {
+            assumeNoException(e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStubs.StubEventSpace;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStubs.StubPollBallot;
+import io.mochalog.sarl.beliefs.social.analysis.SocialExperimentBallot;
+import io.mochalog.sarl.beliefs.social.analysis.poll.QuorumEvaluator;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPoll;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of the reporting of belief metrics to
+ * an installed registry.
+ */
+public class BeliefMetricsTest
+{
+    // Registry installed for each test
+    private InMemoryMetricsRegistry registry;
+    
+    @Before
+    public void setUp()
+    {
+        registry = new InMemoryMetricsRegistry();
+        BeliefMetrics.install(registry);
+    }
+    
+    @After
+    public void tearDown()
+    {
+        BeliefMetrics.install(null);
+    }
+    
+    @Test
+    public void reportsToInstalledRegistry()
+    {
+        assertSame(registry, BeliefMetrics.get().getRegistry());
+        
+        BeliefMetrics.get().getQueriesAsked().increment();
+        BeliefMetrics.get().getQueriesShed().increment(2);
+        BeliefMetrics.get().getKnowledgeBaseCalls().record(10);
+        
+        assertEquals(Long.valueOf(1), registry.getCounts().get(BeliefMetrics.QUERIES_ASKED));
+        assertEquals(Long.valueOf(2), registry.getCounts().get(BeliefMetrics.QUERIES_SHED));
+        assertEquals(1, registry.getTimers().get(BeliefMetrics.KNOWLEDGE_BASE_CALLS).count());
+    }
+    
+    @Test
+    public void namesExperimentMetricsByKind()
+    {
+        BeliefMetrics.get().getExperimentCounter("poll", BeliefMetrics.EXPERIMENT_STARTED).increment();
+        BeliefMetrics.get().getExperimentDuration("poll").record(5);
+        
+        assertEquals(Long.valueOf(1), registry.getCounts().get("beliefs.poll.started"));
+        assertEquals(5, registry.getTimers().get("beliefs.poll.duration").totalTime());
+    }
+    
+    @Test
+    public void gaugesActiveExperiments()
+    {
+        final SocialExperimentBallot experiment = experimentAwaiting(3);
+        
+        BeliefMetrics.experimentStarted(experiment);
+        try
+        {
+            assertEquals(1, registry.getGaugeValue(BeliefMetrics.ACTIVE_EXPERIMENTS));
+            assertEquals(3, registry.getGaugeValue(BeliefMetrics.OUTSTANDING_RESPONDERS));
+        }
+        finally
+        {
+            BeliefMetrics.experimentEnded(experiment);
+        }
+        
+        assertEquals(0, registry.getGaugeValue(BeliefMetrics.ACTIVE_EXPERIMENTS));
+        assertEquals(0, registry.getGaugeValue(BeliefMetrics.OUTSTANDING_RESPONDERS));
+    }
+    
+    @Test
+    public void countsDecidedExperimentsAsCompleted()
+    {
+        final StubEventSpace space = new StubEventSpace(true);
+        space.addRespondents(2, true);
+        
+        SocialPoll poll = conductPoll(space, 5000);
+        
+        assertEquals(Boolean.TRUE, poll.getResult().toCompletableFuture().getNow(null));
+        assertEquals(1, count("beliefs.poll" + BeliefMetrics.EXPERIMENT_COMPLETED));
+        assertEquals(0, count("beliefs.poll" + BeliefMetrics.EXPERIMENT_TIMED_OUT));
+    }
+    
+    @Test
+    public void countsTimedOutExperimentsAsTimedOutOnly() throws Exception
+    {
+        // Respondents never answer, such that the poll times out
+        final StubEventSpace space = new StubEventSpace(false);
+        space.addRespondents(2, true);
+        
+        SocialPoll poll = conductPoll(space, 10);
+        
+        assertEquals(Boolean.FALSE, poll.getResult().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertEquals(0, count("beliefs.poll" + BeliefMetrics.EXPERIMENT_COMPLETED));
+        assertEquals(1, count("beliefs.poll" + BeliefMetrics.EXPERIMENT_TIMED_OUT));
+    }
+    
+    @Test
+    public void discardsMetricsOnceUninstalled()
+    {
+        BeliefMetrics.install(null);
+        BeliefMetrics.get().getQueriesAsked().increment();
+        
+        assertEquals(Long.valueOf(0), registry.getCounts().get(BeliefMetrics.QUERIES_ASKED));
+    }
+    
+    /**
+     * Get the count of a counter of the installed registry.
+     * @param name Name of counter
+     * @return Count, or 0 if never incremented
+     */
+    private long count(String name)
+    {
+        Long count = registry.getCounts().get(name);
+        return count != null ? count : 0;
+    }
+    
+    /**
+     * Conduct a poll requiring all respondents to believe
+     * the surveyed query.
+     * @param space Space to conduct poll in
+     * @param timeout Timeout of poll in ms
+     * @return Poll instance
+     */
+    private static SocialPoll conductPoll(StubEventSpace space, long timeout)
+    {
+        return new SocialPollImpl.Executor()
+            .setSpace(space)
+            .addSurveys(new BeliefQuery("fact(X)"))
+            .setEvaluator(QuorumEvaluator.fraction(1, true))
+            .endExperimentAfter(timeout)
+            .execute();
+    }
+    
+    /**
+     * Create an experiment awaiting a number of respondents.
+     * @param outstanding Number of outstanding respondents
+     * @return Experiment ballot
+     */
+    private static SocialExperimentBallot experimentAwaiting(int outstanding)
+    {
+        List<UUID> respondents = new ArrayList<UUID>();
+        for (int i = 0; i < outstanding; ++i)
+        {
+            respondents.add(UUID.randomUUID());
+        }
+        
+        return new StubPollBallot(respondents);
+    }
+}
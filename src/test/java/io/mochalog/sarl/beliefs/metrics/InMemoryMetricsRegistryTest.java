@@ -0,0 +1,82 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the in-memory metrics registry.
+ */
+public class InMemoryMetricsRegistryTest
+{
+    @Test
+    public void sharesInstrumentsByName()
+    {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        
+        assertSame(registry.counter("a"), registry.counter("a"));
+        assertSame(registry.timer("b"), registry.timer("b"));
+    }
+    
+    @Test
+    public void countsIncrements()
+    {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        registry.counter("b").increment();
+        registry.counter("b").increment(4);
+        registry.counter("a").increment();
+        
+        assertEquals(5, registry.counter("b").count());
+        assertEquals(Arrays.asList("a", "b"), 
+            Arrays.asList(registry.getCounts().keySet().toArray()));
+        assertEquals(Long.valueOf(5), registry.getCounts().get("b"));
+    }
+    
+    @Test
+    public void timesRecordedDurations()
+    {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        Timer timer = registry.timer("calls");
+        timer.record(30);
+        timer.record(50);
+        timer.record(20);
+        
+        assertEquals(3, timer.count());
+        assertEquals(100, timer.totalTime());
+        assertEquals(50, timer.maxTime());
+        assertSame(timer, registry.getTimers().get("calls"));
+    }
+    
+    @Test
+    public void readsGaugesOnDemand()
+    {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        final AtomicLong value = new AtomicLong(3);
+        registry.gauge("size", value::get);
+        
+        assertEquals(3, registry.getGaugeValue("size"));
+        value.set(7);
+        assertEquals(7, registry.getGaugeValue("size"));
+        assertEquals(0, registry.getGaugeValue("missing"));
+    }
+}
@@ -0,0 +1,317 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.mochalog.sarl.beliefs.query.AggregationMode;
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+
+import io.mochalog.bridge.prolog.query.QuerySolutionList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.xtext.xbase.lib.Functions.Function1;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the coalescing of identical belief queries.
+ */
+public class DisclosureCoalescerTest
+{
+    // Coalescing window outlasting any single test
+    private static final long WINDOW = TimeUnit.MINUTES.toMillis(1);
+    
+    // Number of times queries were evaluated
+    private final AtomicInteger evaluations = new AtomicInteger();
+    // Disclosures replied with, in order
+    private final List<BeliefDisclosure> replies = 
+        Collections.synchronizedList(new ArrayList<BeliefDisclosure>());
+    
+    // Evaluation of any query as believed
+    private final Function1<BeliefQuery, BeliefDisclosure> believed = (query) -> 
+    {
+        evaluations.incrementAndGet();
+        return new BeliefDisclosure(query, true);
+    };
+    // Reply recording each disclosure
+    private final Procedure2<BeliefQuery, BeliefDisclosure> reply = (query, disclosure) -> 
+        replies.add(disclosure);
+    
+    @Test
+    public void sharesDisclosureWithinWindow()
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(WINDOW);
+        final BeliefQuery first = new BeliefQuery("fact(X)");
+        final BeliefQuery second = new BeliefQuery("fact(X)");
+        
+        coalescer.respond(first, believed, reply);
+        coalescer.respond(second, believed, reply);
+        
+        assertEquals(1, evaluations.get());
+        assertEquals(1, coalescer.getEvaluationCount());
+        assertEquals(1, coalescer.getCoalescedCount());
+        
+        // Shared disclosure is addressed to each querier
+        assertEquals(2, replies.size());
+        assertSame(first, replies.get(0).query);
+        assertSame(second, replies.get(1).query);
+        assertTrue(replies.get(1).isBelieved);
+    }
+    
+    @Test
+    public void evaluatesDistinctQueriesSeparately()
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(WINDOW);
+        final BeliefQuery truthOnly = new BeliefQuery("fact(X)");
+        truthOnly.discloseTruthOnly();
+        
+        coalescer.respond(new BeliefQuery("fact(X)"), believed, reply);
+        coalescer.respond(new BeliefQuery("other(X)"), believed, reply);
+        coalescer.respond(truthOnly, believed, reply);
+        
+        assertEquals(3, evaluations.get());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+    
+    @Test
+    public void evaluatesDifferentlyAggregatedQueriesSeparately()
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(WINDOW);
+        final BeliefQuery aggregated = new BeliefQuery("fact(X)");
+        aggregated.aggregate(AggregationMode.ALL, 100);
+        final BeliefQuery longerAggregated = new BeliefQuery("fact(X)");
+        longerAggregated.aggregate(AggregationMode.ALL, 200);
+        
+        coalescer.respond(new BeliefQuery("fact(X)"), believed, reply);
+        coalescer.respond(aggregated, believed, reply);
+        coalescer.respond(longerAggregated, believed, reply);
+        
+        assertEquals(3, evaluations.get());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+    
+    @Test
+    public void copiesSolutionsForEachQuerier()
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(WINDOW);
+        
+        coalescer.respond(new BeliefQuery("fact(X)"), (query) -> 
+            new BeliefDisclosure(query, new QuerySolutionList()), reply);
+        coalescer.respond(new BeliefQuery("fact(X)"), believed, reply);
+        
+        assertEquals(2, replies.size());
+        assertNotSame(replies.get(0).solutions, replies.get(1).solutions);
+    }
+    
+    @Test
+    public void sharesOnlyDuringEvaluationWithoutWindow()
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(0);
+        
+        coalescer.respond(new BeliefQuery("fact(X)"), believed, reply);
+        coalescer.respond(new BeliefQuery("fact(X)"), believed, reply);
+        
+        assertEquals(2, evaluations.get());
+        assertEquals(2, replies.size());
+    }
+    
+    @Test
+    public void answersFollowersOnCompletion() throws InterruptedException
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(0);
+        final CountDownLatch evaluating = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        
+        // Leader evaluation blocks until the follower has joined
+        final Function1<BeliefQuery, BeliefDisclosure> blocking = (query) -> 
+        {
+            evaluating.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            
+            return believed.apply(query);
+        };
+        
+        // Follower is answered through a reply of its own
+        final BeliefQuery follower = new BeliefQuery("fact(X)");
+        final List<BeliefDisclosure> followerReplies = 
+            Collections.synchronizedList(new ArrayList<BeliefDisclosure>());
+        Thread leader = new Thread(() -> 
+            coalescer.respond(new BeliefQuery("fact(X)"), blocking, reply));
+        leader.start();
+        evaluating.await();
+        
+        coalescer.respond(follower, blocking, (query, disclosure) -> followerReplies.add(disclosure));
+        assertTrue(replies.isEmpty());
+        assertTrue(followerReplies.isEmpty());
+        
+        release.countDown();
+        leader.join();
+        
+        assertEquals(1, evaluations.get());
+        assertEquals(1, coalescer.getCoalescedCount());
+        assertEquals(1, replies.size());
+        assertEquals(1, followerReplies.size());
+        assertSame(follower, followerReplies.get(0).query);
+    }
+    
+    @Test
+    public void evaluatesFollowersThemselvesOnFailedEvaluation() throws InterruptedException
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(0);
+        final CountDownLatch evaluating = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        
+        // Leader evaluation fails once the follower has joined
+        final Function1<BeliefQuery, BeliefDisclosure> failing = (query) -> 
+        {
+            evaluating.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            
+            return null;
+        };
+        
+        final BeliefQuery follower = new BeliefQuery("fact(X)");
+        final List<BeliefDisclosure> followerReplies = 
+            Collections.synchronizedList(new ArrayList<BeliefDisclosure>());
+        Thread leader = new Thread(() -> 
+            coalescer.respond(new BeliefQuery("fact(X)"), failing, reply));
+        leader.start();
+        evaluating.await();
+        
+        coalescer.respond(follower, believed, (query, disclosure) -> followerReplies.add(disclosure));
+        
+        release.countDown();
+        leader.join();
+        
+        // Follower is evaluated by its own evaluator, and
+        // answered through its own reply
+        assertEquals(1, evaluations.get());
+        assertTrue(replies.isEmpty());
+        assertEquals(1, followerReplies.size());
+        assertSame(follower, followerReplies.get(0).query);
+    }
+    
+    @Test
+    public void answersRemainingFollowersOnFailedReply() throws InterruptedException
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(0);
+        final CountDownLatch evaluating = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        
+        final Function1<BeliefQuery, BeliefDisclosure> blocking = (query) -> 
+        {
+            evaluating.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            
+            return believed.apply(query);
+        };
+        
+        // Reply fails for the first follower alone
+        final BeliefQuery failing = new BeliefQuery("fact(X)");
+        final BeliefQuery follower = new BeliefQuery("fact(X)");
+        final Procedure2<BeliefQuery, BeliefDisclosure> failingReply = (query, disclosure) -> 
+        {
+            if (query == failing)
+            {
+                throw new IllegalStateException("Querier unreachable.");
+            }
+            
+            reply.apply(query, disclosure);
+        };
+        
+        final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+        Thread leader = new Thread(() -> 
+        {
+            try
+            {
+                coalescer.respond(new BeliefQuery("fact(X)"), blocking, failingReply);
+            }
+            catch (RuntimeException e)
+            {
+                failure.set(e);
+            }
+        });
+        leader.start();
+        evaluating.await();
+        
+        coalescer.respond(failing, blocking, failingReply);
+        coalescer.respond(follower, blocking, failingReply);
+        
+        release.countDown();
+        leader.join();
+        
+        // Failure is raised only once all others were answered
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertEquals(2, replies.size());
+        assertSame(follower, replies.get(1).query);
+    }
+    
+    @Test
+    public void reevaluatesAfterFailedEvaluation()
+    {
+        DisclosureCoalescer coalescer = new DisclosureCoalescer(WINDOW);
+        
+        coalescer.respond(new BeliefQuery("fact(X)"), (query) -> 
+        {
+            evaluations.incrementAndGet();
+            return null;
+        }, reply);
+        coalescer.respond(new BeliefQuery("fact(X)"), believed, reply);
+        
+        assertEquals(2, evaluations.get());
+        assertEquals(1, replies.size());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeWindow()
+    {
+        new DisclosureCoalescer(-1);
+    }
+}
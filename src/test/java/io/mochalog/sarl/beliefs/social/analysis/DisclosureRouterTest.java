@@ -0,0 +1,193 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStubs.StubPollBallot;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStubs.StubRestrictedSpace;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollBallot;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollImpl;
+
+import java.security.Principal;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of disclosure router attachment to
+ * spaces with access restrictions.
+ */
+public class DisclosureRouterTest
+{
+    // Principal granted access to the space
+    private final Principal granted = () -> "granted";
+    // Principal refused access to the space
+    private final Principal refused = () -> "refused";
+    
+    // Space with access restrictions
+    private StubRestrictedSpace space;
+    // Ballots attached by the test, and their routers
+    private SocialExperimentBallot firstBallot;
+    private SocialExperimentBallot secondBallot;
+    private DisclosureRouter first;
+    private DisclosureRouter second;
+    
+    @Before
+    public void setUp()
+    {
+        space = new StubRestrictedSpace(granted);
+        firstBallot = ballot();
+        secondBallot = ballot();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        if (first != null)
+        {
+            first.detach(firstBallot);
+        }
+        
+        if (second != null)
+        {
+            second.detach(secondBallot);
+        }
+    }
+    
+    @Test
+    public void sharesRouterWithSamePrincipal()
+    {
+        first = DisclosureRouter.attach(firstBallot, space, granted);
+        assertNotNull(first);
+        
+        SocialExperimentBallot other = ballot();
+        assertSame(first, DisclosureRouter.attach(other, space, granted));
+        assertEquals(2, first.getBallotCount());
+        
+        first.detach(other);
+        assertEquals(1, space.getListenerCount());
+    }
+    
+    @Test
+    public void refusesSecondAttachWithoutPrincipal()
+    {
+        first = DisclosureRouter.attach(firstBallot, space, granted);
+        assertNotNull(first);
+        
+        assertNull(DisclosureRouter.attach(ballot(), space, null));
+        assertEquals(1, first.getBallotCount());
+    }
+    
+    @Test
+    public void refusesSecondAttachWithRefusedPrincipal()
+    {
+        first = DisclosureRouter.attach(firstBallot, space, granted);
+        assertNotNull(first);
+        
+        assertNull(DisclosureRouter.attach(ballot(), space, refused));
+        assertEquals(1, first.getBallotCount());
+        assertEquals(1, space.getListenerCount());
+    }
+    
+    @Test
+    public void separatesRoutersOfGrantedPrincipals()
+    {
+        Principal alsoGranted = () -> "also granted";
+        space.grant(alsoGranted);
+        
+        first = DisclosureRouter.attach(firstBallot, space, granted);
+        second = DisclosureRouter.attach(secondBallot, space, alsoGranted);
+        
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotSame(first, second);
+        // Routers of a space share its latency tracker
+        assertSame(first.getLatencyTracker(), second.getLatencyTracker());
+    }
+    
+    @Test
+    public void excludesRoutersOfOtherPrincipalsFromRespondents()
+    {
+        Principal alsoGranted = () -> "also granted";
+        space.grant(alsoGranted);
+        final UUID respondent = space.addParticipant();
+        
+        SocialPollImpl firstPoll = conductPoll(granted);
+        SocialPollImpl secondPoll = conductPoll(alsoGranted);
+        try
+        {
+            // Each poll is routed by the router of its principal,
+            // and neither router is expected to respond
+            assertNotSame(DisclosureRouter.forSpace(space, granted), 
+                DisclosureRouter.forSpace(space, alsoGranted));
+            assertTrue(DisclosureRouter.isRouter(DisclosureRouter.forSpace(space, granted).getID()));
+            
+            assertEquals(Collections.singleton(respondent), 
+                new HashSet<UUID>(firstPoll.getExpectedRespondents()));
+            assertEquals(Collections.singleton(respondent), 
+                new HashSet<UUID>(secondPoll.getExpectedRespondents()));
+            assertEquals(1, secondPoll.getOutstandingResponderCount());
+        }
+        finally
+        {
+            firstPoll.end();
+            secondPoll.end();
+        }
+        
+        assertFalse(DisclosureRouter.isRouter(respondent));
+        assertNull(DisclosureRouter.forSpace(space, granted));
+    }
+    
+    /**
+     * Conduct a poll in the space on behalf of a principal,
+     * left in progress until ended.
+     * @param principal Principal to identify access permissions
+     * @return Poll in progress
+     */
+    private SocialPollImpl conductPoll(Principal principal)
+    {
+        return new SocialPollImpl.Executor()
+            .setSpace(space)
+            .setAccessPrincipal(principal)
+            .addSurveys(new BeliefQuery("fact(X)"))
+            .setEvaluator((SocialPollBallot poll, BeliefDisclosure response) -> { })
+            .execute();
+    }
+    
+    /**
+     * Create a ballot with no active surveys.
+     * @return Stub ballot
+     */
+    private static SocialExperimentBallot ballot()
+    {
+        return new StubPollBallot(Collections.<UUID>emptyList());
+    }
+}
@@ -0,0 +1,654 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.AbstractDisclosureListener;
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollBallot;
+import io.mochalog.sarl.beliefs.trace.PollTracer;
+import io.mochalog.sarl.beliefs.util.ResponderSet;
+
+import io.sarl.lang.core.Address;
+import io.sarl.lang.core.Event;
+import io.sarl.lang.core.EventListener;
+import io.sarl.lang.core.EventSpace;
+import io.sarl.lang.core.Scope;
+import io.sarl.lang.core.SpaceID;
+
+import io.sarl.lang.util.SynchronizedSet;
+
+import io.sarl.util.Collections3;
+import io.sarl.util.OpenEventSpace;
+import io.sarl.util.OpenEventSpaceSpecification;
+import io.sarl.util.RestrictedAccessEventSpace;
+import io.sarl.util.RestrictedAccessEventSpaceSpecification;
+import io.sarl.util.Scopes;
+
+import java.security.Principal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure1;
+
+/**
+ * Stand-ins for the experiments and spaces consulted by
+ * unit tests of social experiments.
+ */
+public final class ExperimentStubs
+{
+    /**
+     * Constructor.
+     */
+    private ExperimentStubs()
+    {
+    }
+    
+    /**
+     * Poll ballot holding only the respondents of the poll,
+     * and the first result it was finalised with. Stub polls
+     * survey no participants, and are conducted in no space.
+     */
+    public static class StubPollBallot extends AbstractDisclosureListener 
+        implements SocialPollBallot
+    {
+        // Respondents expected, yet to respond, and
+        // responding in each manner
+        private final ResponderSet expected;
+        private final ResponderSet pending;
+        private final ResponderSet positive;
+        private final ResponderSet negative;
+        
+        // Result of the poll, completed once finalised
+        private final CompletableFuture<Boolean> result;
+        // Callback function to invoke once finalised
+        private volatile Procedure1<? super Boolean> callback;
+        
+        /**
+         * Constructor.
+         * @param respondents Respondents expected to respond
+         */
+        public StubPollBallot(Collection<UUID> respondents)
+        {
+            expected = new ResponderSet();
+            pending = new ResponderSet();
+            positive = new ResponderSet();
+            negative = new ResponderSet();
+            
+            expected.addAll(respondents);
+            pending.addAll(respondents);
+            
+            result = new CompletableFuture<Boolean>();
+        }
+        
+        /**
+         * Get the result the poll was first finalised with.
+         * @return Poll result, or null if not yet finalised
+         */
+        public Boolean getFinalResult()
+        {
+            return result.getNow(null);
+        }
+        
+        @Override
+        public void finalisePollResult(boolean result)
+        {
+            // Only the first result is kept
+            if (this.result.complete(result) && callback != null)
+            {
+                callback.apply(result);
+            }
+        }
+        
+        @Override
+        public void onPollResult(Procedure1<? super Boolean> callback)
+        {
+            this.callback = callback;
+        }
+        
+        @Override
+        public CompletionStage<Boolean> getResult()
+        {
+            return result;
+        }
+        
+        @Override
+        public SynchronizedSet<UUID> getAgreeingRespondents()
+        {
+            return positive.unmodifiableView();
+        }
+        
+        @Override
+        public boolean addPositiveResponse(BeliefDisclosure disclosure)
+        {
+            return addPositiveResponder(disclosure.getSource().getUUID());
+        }
+        
+        @Override
+        public boolean addPositiveResponder(UUID responder)
+        {
+            return addResponder(positive, responder);
+        }
+        
+        @Override
+        public boolean addNegativeResponse(BeliefDisclosure disclosure)
+        {
+            return addNegativeResponder(disclosure.getSource().getUUID());
+        }
+        
+        @Override
+        public boolean addNegativeResponder(UUID responder)
+        {
+            return addResponder(negative, responder);
+        }
+        
+        /**
+         * Record the first response of a respondent.
+         * @param responders Respondents responding in
+         * the same manner
+         * @param responder Respondent identifier
+         * @return True if first response of respondent,
+         * false otherwise.
+         */
+        private boolean addResponder(ResponderSet responders, UUID responder)
+        {
+            if (responders.add(responder))
+            {
+                pending.remove(responder);
+                return true;
+            }
+            
+            return false;
+        }
+        
+        @Override
+        public SynchronizedSet<UUID> getPositiveResponders()
+        {
+            return positive.unmodifiableView();
+        }
+        
+        @Override
+        public SynchronizedSet<UUID> getNegativeResponders()
+        {
+            return negative.unmodifiableView();
+        }
+        
+        @Override
+        public SynchronizedSet<UUID> getExpectedRespondents()
+        {
+            return expected.unmodifiableView();
+        }
+        
+        @Override
+        public int getOutstandingResponderCount()
+        {
+            return pending.size();
+        }
+        
+        @Override
+        public boolean excuseRespondent(UUID respondent)
+        {
+            return pending.remove(respondent);
+        }
+        
+        @Override
+        public void onDisclosure(BeliefDisclosure disclosure)
+        {
+        }
+        
+        @Override
+        public boolean inProgress()
+        {
+            return !result.isDone();
+        }
+        
+        @Override
+        public SynchronizedSet<BeliefQuery> getActiveSurveys()
+        {
+            return Collections3.unmodifiableSynchronizedSet(
+                Collections3.synchronizedSet(new HashSet<BeliefQuery>(), new Object()));
+        }
+        
+        @Override
+        public boolean surveyParticipants(BeliefQuery... queries)
+        {
+            return false;
+        }
+        
+        @Override
+        public boolean surveyParticipants(Scope<Address> scope, BeliefQuery... queries)
+        {
+            return false;
+        }
+        
+        @Override
+        public boolean surveyParticipants(Collection<BeliefQuery> queries, Scope<Address> scope)
+        {
+            return false;
+        }
+        
+        @Override
+        public void end()
+        {
+            cancel();
+        }
+        
+        @Override
+        public boolean cancel()
+        {
+            return result.cancel(false);
+        }
+        
+        @Override
+        public CompletionStage<ExperimentStatistics> getStatistics()
+        {
+            return result.thenApply((ignored) -> new ExperimentStatistics(expected.size(), 
+                positive.size(), negative.size(), pending.size(), 0));
+        }
+        
+        @Override
+        public long getTraceId()
+        {
+            return PollTracer.UNTRACED;
+        }
+        
+        @Override
+        public EventSpace getSpace()
+        {
+            return null;
+        }
+        
+        @Override
+        public SynchronizedSet<UUID> getParticipants()
+        {
+            return expected.unmodifiableView();
+        }
+    }
+    
+    /**
+     * Open space populated by simulated respondents, each
+     * answering every belief query it receives as either
+     * believed or not. Answers are held until released, unless
+     * the space answers immediately.
+     */
+    public static class StubEventSpace implements OpenEventSpace
+    {
+        // Identifier of the space
+        private final SpaceID spaceID;
+        // Whether queries are answered as they are emitted
+        private final boolean immediate;
+        
+        // Listeners registered in the space
+        private final Map<UUID, EventListener> listeners;
+        // Belief held by each simulated respondent
+        private final Map<UUID, Boolean> respondents;
+        // Addresses of all listeners and respondents
+        private final Map<UUID, Address> addresses;
+        // Answers yet to be released
+        private final Queue<BeliefDisclosure> answers;
+        
+        /**
+         * Constructor.
+         * @param immediate Whether queries are answered
+         * as they are emitted
+         */
+        public StubEventSpace(boolean immediate)
+        {
+            spaceID = new SpaceID(UUID.randomUUID(), UUID.randomUUID(), 
+                OpenEventSpaceSpecification.class);
+            this.immediate = immediate;
+            
+            listeners = new ConcurrentHashMap<UUID, EventListener>();
+            respondents = new ConcurrentHashMap<UUID, Boolean>();
+            addresses = new ConcurrentHashMap<UUID, Address>();
+            answers = new ConcurrentLinkedQueue<BeliefDisclosure>();
+        }
+        
+        /**
+         * Add simulated respondents to the space.
+         * @param count Number of respondents to add
+         * @param believed Whether respondents believe
+         * the queries they receive
+         * @return Identifiers of added respondents
+         */
+        public List<UUID> addRespondents(int count, boolean believed)
+        {
+            List<UUID> added = new ArrayList<UUID>(count);
+            for (int i = 0; i < count; ++i)
+            {
+                UUID respondent = UUID.randomUUID();
+                respondents.put(respondent, believed);
+                addresses.put(respondent, new Address(spaceID, respondent));
+                added.add(respondent);
+            }
+            
+            return added;
+        }
+        
+        /**
+         * Release all answers held by the space to
+         * their queriers.
+         * @return Number of answers released
+         */
+        public int releaseAnswers()
+        {
+            int released = 0;
+            BeliefDisclosure answer;
+            while ((answer = answers.poll()) != null)
+            {
+                deliver(answer);
+                ++released;
+            }
+            
+            return released;
+        }
+        
+        /**
+         * Deliver an answer to the source of its query.
+         * @param answer Answer to deliver
+         */
+        private void deliver(BeliefDisclosure answer)
+        {
+            EventListener source = listeners.get(answer.query.getSource().getUUID());
+            if (source != null)
+            {
+                source.receiveEvent(answer);
+            }
+        }
+        
+        @Override
+        public Address register(EventListener entity)
+        {
+            Address address = new Address(spaceID, entity.getID());
+            listeners.put(entity.getID(), entity);
+            addresses.put(entity.getID(), address);
+            return address;
+        }
+        
+        @Override
+        public Address unregister(EventListener entity)
+        {
+            listeners.remove(entity.getID());
+            return addresses.remove(entity.getID());
+        }
+        
+        @Override
+        public Address getAddress(UUID id)
+        {
+            return addresses.get(id);
+        }
+        
+        public void emit(Event event)
+        {
+            emit(event, Scopes.<Address>allParticipants());
+        }
+        
+        @Override
+        public void emit(Event event, Scope<Address> scope)
+        {
+            final Scope<Address> receivers = scope == null ? Scopes.<Address>allParticipants() : scope;
+            for (EventListener listener : listeners.values())
+            {
+                Address address = addresses.get(listener.getID());
+                if (address != null && receivers.matches(address))
+                {
+                    listener.receiveEvent(event);
+                }
+            }
+            
+            if (!(event instanceof BeliefQuery))
+            {
+                return;
+            }
+            
+            final BeliefQuery query = (BeliefQuery) event;
+            for (Map.Entry<UUID, Boolean> respondent : respondents.entrySet())
+            {
+                Address address = addresses.get(respondent.getKey());
+                if (receivers.matches(address))
+                {
+                    BeliefDisclosure answer = new BeliefDisclosure(query, respondent.getValue());
+                    answer.setSource(address);
+                    if (immediate)
+                    {
+                        deliver(answer);
+                    }
+                    else
+                    {
+                        answers.add(answer);
+                    }
+                }
+            }
+        }
+        
+        @Override
+        public SpaceID getSpaceID()
+        {
+            return spaceID;
+        }
+        
+        public SpaceID getID()
+        {
+            return spaceID;
+        }
+        
+        @Override
+        public SynchronizedSet<UUID> getParticipants()
+        {
+            Set<UUID> participants = addresses.keySet();
+            return Collections3.unmodifiableSynchronizedSet(
+                Collections3.synchronizedSet(participants, participants));
+        }
+    }
+    
+    /**
+     * Scheduler recording the delay of each timeout it
+     * schedules, and running timeouts on a scheduler of
+     * its own.
+     */
+    public static class RecordingScheduler implements ExperimentScheduler
+    {
+        // Scheduler running timeouts
+        private final SharedExperimentScheduler scheduler;
+        // Delays in ms of scheduled timeouts, in order
+        private final List<Long> delays;
+        
+        /**
+         * Constructor.
+         */
+        public RecordingScheduler()
+        {
+            scheduler = new SharedExperimentScheduler(1);
+            delays = Collections.synchronizedList(new ArrayList<Long>());
+        }
+        
+        /**
+         * Get the delays of all timeouts scheduled.
+         * @return Delays in ms, in order of scheduling
+         */
+        public List<Long> getDelays()
+        {
+            return delays;
+        }
+        
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, long delay)
+        {
+            delays.add(delay);
+            return scheduler.schedule(task, delay);
+        }
+        
+        @Override
+        public int getQueueDepth()
+        {
+            return scheduler.getQueueDepth();
+        }
+        
+        @Override
+        public long getMaximumLateness()
+        {
+            return scheduler.getMaximumLateness();
+        }
+        
+        @Override
+        public double getAverageLateness()
+        {
+            return scheduler.getAverageLateness();
+        }
+    }
+    
+    /**
+     * Space with access restrictions, granting access to
+     * a fixed set of principals. Events emitted in the
+     * space are not delivered.
+     */
+    public static class StubRestrictedSpace implements RestrictedAccessEventSpace
+    {
+        // Identifier of the space
+        private final SpaceID spaceID;
+        
+        // Principals granted access
+        private final Set<Principal> principals;
+        // Addresses of registered listeners
+        private final Map<UUID, Address> listeners;
+        // Addresses of participants registered as no listener
+        private final Map<UUID, Address> members;
+        
+        /**
+         * Constructor.
+         * @param principals Principals granted access
+         */
+        public StubRestrictedSpace(Principal... principals)
+        {
+            spaceID = new SpaceID(UUID.randomUUID(), UUID.randomUUID(), 
+                RestrictedAccessEventSpaceSpecification.class);
+            
+            this.principals = ConcurrentHashMap.newKeySet();
+            listeners = new ConcurrentHashMap<UUID, Address>();
+            members = new ConcurrentHashMap<UUID, Address>();
+            
+            for (Principal principal : principals)
+            {
+                grant(principal);
+            }
+        }
+        
+        /**
+         * Grant a principal access to the space.
+         * @param principal Principal to grant access
+         */
+        public void grant(Principal principal)
+        {
+            principals.add(principal);
+        }
+        
+        /**
+         * Add a participant to the space, registered as
+         * no listener.
+         * @return Participant identifier
+         */
+        public UUID addParticipant()
+        {
+            UUID participant = UUID.randomUUID();
+            members.put(participant, new Address(spaceID, participant));
+            return participant;
+        }
+        
+        /**
+         * Get the number of listeners registered in the space.
+         * @return Listener count
+         */
+        public int getListenerCount()
+        {
+            return listeners.size();
+        }
+        
+        @Override
+        public Address register(EventListener entity, Principal requester)
+        {
+            if (requester == null || !principals.contains(requester))
+            {
+                return null;
+            }
+            
+            Address address = new Address(spaceID, entity.getID());
+            listeners.put(entity.getID(), address);
+            return address;
+        }
+        
+        @Override
+        public <P extends EventListener & Principal> Address register(P entity)
+        {
+            return register(entity, entity);
+        }
+        
+        @Override
+        public Address unregister(EventListener entity)
+        {
+            return listeners.remove(entity.getID());
+        }
+        
+        @Override
+        public Address getAddress(UUID id)
+        {
+            Address address = listeners.get(id);
+            return address != null ? address : members.get(id);
+        }
+        
+        public void emit(Event event)
+        {
+        }
+        
+        @Override
+        public void emit(Event event, Scope<Address> scope)
+        {
+        }
+        
+        @Override
+        public SpaceID getSpaceID()
+        {
+            return spaceID;
+        }
+        
+        public SpaceID getID()
+        {
+            return spaceID;
+        }
+        
+        @Override
+        public SynchronizedSet<UUID> getParticipants()
+        {
+            Set<UUID> participants = new HashSet<UUID>(listeners.keySet());
+            participants.addAll(members.keySet());
+            return Collections3.unmodifiableSynchronizedSet(
+                Collections3.synchronizedSet(participants, participants));
+        }
+    }
+}
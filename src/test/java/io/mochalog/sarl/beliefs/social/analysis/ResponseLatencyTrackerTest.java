@@ -0,0 +1,229 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStubs.RecordingScheduler;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStubs.StubEventSpace;
+import io.mochalog.sarl.beliefs.social.analysis.poll.QuorumEvaluator;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPoll;
+import io.mochalog.sarl.beliefs.social.analysis.poll.SocialPollImpl;
+
+import io.sarl.lang.core.SpaceID;
+
+import io.sarl.util.OpenEventSpaceSpecification;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the response latency tracker.
+ */
+public class ResponseLatencyTrackerTest
+{
+    // Half-life long enough for no decay to occur during a test
+    private static final long HALF_LIFE = TimeUnit.HOURS.toMillis(1);
+    
+    // Respondents of the tracked space
+    private final UUID fast = UUID.randomUUID();
+    private final UUID slow = UUID.randomUUID();
+    
+    @Test
+    public void reportsNoQuantileWhenEmpty()
+    {
+        ResponseLatencyTracker tracker = new ResponseLatencyTracker(HALF_LIFE);
+        
+        assertEquals(-1, tracker.getQuantile(0.5), 0);
+        assertEquals(0, tracker.getSampleWeight(), 0);
+    }
+    
+    @Test
+    public void roundsQuantilesUpToBucketBound()
+    {
+        ResponseLatencyTracker tracker = new ResponseLatencyTracker(HALF_LIFE);
+        record(tracker, fast, 10, 100);
+        
+        final double median = tracker.getQuantile(0.5);
+        assertTrue(median >= 10 && median <= 10 * 1.19);
+        assertEquals(100, tracker.getSampleWeight(), 1e-6);
+    }
+    
+    @Test
+    public void separatesQuantilesOfMixedLatencies()
+    {
+        ResponseLatencyTracker tracker = new ResponseLatencyTracker(HALF_LIFE);
+        record(tracker, fast, 1, 90);
+        record(tracker, slow, 100, 10);
+        
+        assertTrue(tracker.getQuantile(0.5) <= 1 * 1.19);
+        assertTrue(tracker.getQuantile(0.99) >= 100);
+    }
+    
+    @Test
+    public void usesMaximumTimeoutUntilRepresentative()
+    {
+        ResponseLatencyTracker tracker = new ResponseLatencyTracker(HALF_LIFE);
+        record(tracker, fast, 10, (int) ResponseLatencyTracker.MINIMUM_SAMPLE_WEIGHT - 1);
+        assertEquals(1000, tracker.getTimeout(0.9, 1, 1000));
+        
+        record(tracker, fast, 10, 1);
+        final long timeout = tracker.getTimeout(0.9, 1, 1000);
+        assertTrue(timeout >= 10 && timeout <= 12);
+    }
+    
+    @Test
+    public void clampsTimeoutToBounds()
+    {
+        ResponseLatencyTracker tracker = new ResponseLatencyTracker(HALF_LIFE);
+        record(tracker, fast, 10, 50);
+        
+        assertEquals(50, tracker.getTimeout(0.9, 50, 1000));
+        assertEquals(5, tracker.getTimeout(0.9, 1, 5));
+    }
+    
+    @Test
+    public void averagesLatencyOfEachResponder()
+    {
+        ResponseLatencyTracker tracker = new ResponseLatencyTracker(HALF_LIFE);
+        assertEquals(-1, tracker.getResponderLatency(fast), 0);
+        
+        record(tracker, fast, 10, 1);
+        record(tracker, fast, 20, 1);
+        assertEquals(10 + ResponseLatencyTracker.RESPONDER_SMOOTHING * 10, 
+            tracker.getResponderLatency(fast), 1e-9);
+    }
+    
+    @Test
+    public void ranksAndForgetsSlowestResponders()
+    {
+        ResponseLatencyTracker tracker = new ResponseLatencyTracker(HALF_LIFE);
+        record(tracker, fast, 1, 1);
+        record(tracker, slow, 100, 1);
+        
+        assertEquals(Arrays.asList(slow, fast), tracker.getSlowestResponders(5));
+        assertEquals(Arrays.asList(slow), tracker.getSlowestResponders(1));
+        
+        tracker.forget(slow);
+        assertEquals(-1, tracker.getResponderLatency(slow), 0);
+        assertEquals(Arrays.asList(fast), tracker.getSlowestResponders(5));
+    }
+    
+    @Test
+    public void decaysSampleWeightOverTime()
+    {
+        final AtomicLong clock = new AtomicLong();
+        ResponseLatencyTracker tracker = new ResponseLatencyTracker(1000, clock::get);
+        record(tracker, fast, 10, 100);
+        
+        // Histogram is decayed at most once a second
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(100, tracker.getSampleWeight(), 1e-6);
+        
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+        assertEquals(25, tracker.getSampleWeight(), 1e-6);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveHalfLife()
+    {
+        new ResponseLatencyTracker(0);
+    }
+    
+    @Test
+    public void sharesTrackerOfSpaceUntilDiscarded()
+    {
+        final SpaceID spaceID = new SpaceID(UUID.randomUUID(), UUID.randomUUID(), 
+            OpenEventSpaceSpecification.class);
+        
+        final ResponseLatencyTracker tracker = ResponseLatencyTracker.forSpace(spaceID);
+        assertSame(tracker, ResponseLatencyTracker.forSpace(spaceID));
+        
+        ResponseLatencyTracker.discard(spaceID);
+        assertNotSame(tracker, ResponseLatencyTracker.forSpace(spaceID));
+        ResponseLatencyTracker.discard(spaceID);
+    }
+    
+    @Test
+    public void derivesTimeoutOfLaterPollFromEarlierPolls()
+    {
+        final StubEventSpace space = new StubEventSpace(false);
+        space.addRespondents((int) ResponseLatencyTracker.MINIMUM_SAMPLE_WEIGHT, true);
+        final RecordingScheduler scheduler = new RecordingScheduler();
+        
+        try
+        {
+            // Polls are conducted in sequence, such that no router
+            // remains registered in the space between them
+            SocialPoll first = conductPoll(space, scheduler);
+            space.releaseAnswers();
+            assertEquals(Boolean.TRUE, first.getResult().toCompletableFuture().getNow(null));
+            
+            SocialPoll second = conductPoll(space, scheduler);
+            second.end();
+            
+            // First poll has no latencies to draw on, whereas the
+            // second awaits the latencies observed by the first
+            assertEquals(Arrays.asList(5000L, 500L), scheduler.getDelays());
+        }
+        finally
+        {
+            ResponseLatencyTracker.discard(space.getSpaceID());
+        }
+    }
+    
+    /**
+     * Conduct a poll timed out automatically, awaiting the
+     * latency within which recent responses were received.
+     * @param space Space to conduct poll in
+     * @param scheduler Scheduler of poll timeout
+     * @return Poll in progress
+     */
+    private static SocialPoll conductPoll(StubEventSpace space, RecordingScheduler scheduler)
+    {
+        return new SocialPollImpl.Executor()
+            .setSpace(space)
+            .addSurveys(new BeliefQuery("fact(X)"))
+            .setEvaluator(QuorumEvaluator.fraction(1, true))
+            .setScheduler(scheduler)
+            .endExperimentAfterQuantile(0.99, 500, 5000)
+            .execute();
+    }
+    
+    /**
+     * Record a number of identical latencies.
+     * @param tracker Tracker to record to
+     * @param responder Respondent identifier
+     * @param millis Time in ms
+     * @param count Number of latencies to record
+     */
+    private static void record(ResponseLatencyTracker tracker, UUID responder, long millis, int count)
+    {
+        for (int i = 0; i < count; ++i)
+        {
+            tracker.recordLatency(responder, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}
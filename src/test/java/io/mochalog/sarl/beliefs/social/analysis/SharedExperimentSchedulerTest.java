@@ -0,0 +1,66 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.mochalog.sarl.beliefs.social.analysis;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the shared experiment scheduler.
+ */
+public class SharedExperimentSchedulerTest
+{
+    @Test
+    public void runsTimeoutsBesideBlockedCallback() throws InterruptedException
+    {
+        final SharedExperimentScheduler scheduler = new SharedExperimentScheduler(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final CountDownLatch timedOut = new CountDownLatch(1);
+        
+        try
+        {
+            // First timeout blocks, as a slow result callback would,
+            // whilst the single timer thread remains free
+            scheduler.schedule(() ->
+            {
+                blocked.countDown();
+                try
+                {
+                    released.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }, 0);
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            
+            scheduler.schedule(timedOut::countDown, 10);
+            assertTrue(timedOut.await(5, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            released.countDown();
+        }
+    }
+}
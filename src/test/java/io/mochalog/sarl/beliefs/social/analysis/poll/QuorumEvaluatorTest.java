@@ -0,0 +1,172 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis.poll;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.mochalog.sarl.beliefs.social.BeliefDisclosure;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStubs.StubPollBallot;
+
+import io.sarl.lang.core.Address;
+import io.sarl.lang.core.SpaceID;
+
+import io.sarl.util.OpenEventSpaceSpecification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of quorum evaluation against a stub poll.
+ */
+public class QuorumEvaluatorTest
+{
+    // Space in which respondents disclose their beliefs
+    private final SpaceID spaceID = new SpaceID(UUID.randomUUID(), UUID.randomUUID(), 
+        OpenEventSpaceSpecification.class);
+    
+    // Respondents expected to respond to the poll
+    private List<UUID> respondents;
+    // Poll being evaluated
+    private StubPollBallot poll;
+    
+    @Before
+    public void setUp()
+    {
+        respondents = new ArrayList<UUID>();
+        for (int i = 0; i < 3; ++i)
+        {
+            respondents.add(UUID.randomUUID());
+        }
+        
+        poll = new StubPollBallot(respondents);
+    }
+    
+    @Test
+    public void succeedsOnceQuorumIsReached()
+    {
+        QuorumEvaluator evaluator = QuorumEvaluator.atLeast(2, true);
+        
+        evaluator.evaluate(poll, disclose(0, true));
+        assertNull(poll.getFinalResult());
+        
+        evaluator.evaluate(poll, disclose(1, true));
+        assertEquals(Boolean.TRUE, poll.getFinalResult());
+    }
+    
+    @Test
+    public void countsFirstResponseOfEachRespondent()
+    {
+        QuorumEvaluator evaluator = QuorumEvaluator.atLeast(2, true);
+        
+        evaluator.evaluate(poll, disclose(0, true));
+        evaluator.evaluate(poll, disclose(0, true));
+        
+        assertNull(poll.getFinalResult());
+        assertEquals(1, poll.getPositiveResponders().size());
+    }
+    
+    @Test
+    public void failsOnceQuorumIsUnreachable()
+    {
+        QuorumEvaluator evaluator = QuorumEvaluator.atLeast(2, true);
+        
+        evaluator.evaluate(poll, disclose(0, false));
+        assertNull(poll.getFinalResult());
+        
+        // Only a single respondent remains outstanding
+        evaluator.evaluate(poll, disclose(1, false));
+        assertEquals(Boolean.FALSE, poll.getFinalResult());
+    }
+    
+    @Test
+    public void agreesWithFalseHypothesis()
+    {
+        QuorumEvaluator evaluator = QuorumEvaluator.atLeast(1, false);
+        assertFalse(evaluator.isTrue());
+        
+        evaluator.evaluate(poll, disclose(0, true));
+        assertNull(poll.getFinalResult());
+        
+        evaluator.evaluate(poll, disclose(1, false));
+        assertEquals(Boolean.TRUE, poll.getFinalResult());
+    }
+    
+    @Test
+    public void failsOnReevaluationOnceRespondentsAreExcused()
+    {
+        QuorumEvaluator evaluator = QuorumEvaluator.atLeast(2, true);
+        evaluator.evaluate(poll, disclose(0, true));
+        
+        poll.excuseRespondent(respondents.get(1));
+        poll.excuseRespondent(respondents.get(2));
+        evaluator.reevaluate(poll);
+        
+        assertEquals(Boolean.FALSE, poll.getFinalResult());
+    }
+    
+    @Test
+    public void roundsFractionalQuorumUp()
+    {
+        assertEquals(2, QuorumEvaluator.fraction(0.5, true).getQuorum(poll));
+        assertEquals(3, QuorumEvaluator.fraction(1, true).getQuorum(poll));
+        assertEquals(5, QuorumEvaluator.atLeast(5, true).getQuorum(poll));
+    }
+    
+    @Test
+    public void failsWithoutExpectedRespondents()
+    {
+        StubPollBallot empty = new StubPollBallot(new ArrayList<UUID>());
+        QuorumEvaluator evaluator = QuorumEvaluator.fraction(0.5, true);
+        
+        // At least a single agreeing respondent is required
+        assertEquals(1, evaluator.getQuorum(empty));
+        evaluator.reevaluate(empty);
+        assertEquals(Boolean.FALSE, empty.getFinalResult());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveQuorum()
+    {
+        QuorumEvaluator.atLeast(0, true);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFractionOutsideInterval()
+    {
+        QuorumEvaluator.fraction(1.5, true);
+    }
+    
+    /**
+     * Create a disclosure from an expected respondent.
+     * @param respondent Index of respondent
+     * @param isBelieved Whether respondent believes query
+     * @return Belief disclosure
+     */
+    private BeliefDisclosure disclose(int respondent, boolean isBelieved)
+    {
+        BeliefDisclosure disclosure = new BeliefDisclosure(null, isBelieved);
+        disclosure.setSource(new Address(spaceID, respondents.get(respondent)));
+        return disclosure;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.social.analysis.poll;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.mochalog.sarl.beliefs.query.BeliefQuery;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentEvaluator;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStatistics;
+import io.mochalog.sarl.beliefs.social.analysis.ExperimentStubs.StubEventSpace;
+import io.mochalog.sarl.beliefs.social.analysis.poll.ShardedSocialPoll.MergePolicy;
+
+import io.sarl.lang.util.SynchronizedSet;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of pairing shard evaluation functions
+ * with merge policies, and of merging shard results.
+ */
+public class ShardedSocialPollTest
+{
+    // Number of shards partitioning respondents, and number
+    // of respondents, such that several shards are populated
+    private static final int SHARD_COUNT = 4;
+    private static final int RESPONDENT_COUNT = 32;
+    
+    @Test
+    public void mergesSingleRespondentQuorumFromAnyShard()
+    {
+        assertEquals(MergePolicy.ANY, MergePolicy.forEvaluator(QuorumEvaluator.atLeast(1, true)));
+        assertEquals(MergePolicy.ANY, MergePolicy.forEvaluator(QuorumEvaluator.atLeast(1, false)));
+    }
+    
+    @Test
+    public void mergesFractionalQuorumFromEveryShard()
+    {
+        assertEquals(MergePolicy.ALL, MergePolicy.forEvaluator(QuorumEvaluator.fraction(0.5, true)));
+        assertEquals(MergePolicy.ALL, MergePolicy.forEvaluator(QuorumEvaluator.fraction(1, true)));
+    }
+    
+    @Test
+    public void mergesOtherEvaluatorsFromEveryShard()
+    {
+        ExperimentEvaluator<SocialPollBallot> evaluator = (poll, response) -> { };
+        assertEquals(MergePolicy.ALL, MergePolicy.forEvaluator(evaluator));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesQuorumCountsOfSeveralRespondents()
+    {
+        new ShardedSocialPoll.Executor().setEvaluator(QuorumEvaluator.atLeast(2, true));
+    }
+    
+    @Test
+    public void partitionsRespondentsAcrossShards()
+    {
+        final StubEventSpace space = new StubEventSpace(false);
+        final List<UUID> respondents = space.addRespondents(RESPONDENT_COUNT, true);
+        
+        ShardedSocialPoll poll = conductPoll(space, QuorumEvaluator.fraction(1, true));
+        poll.end();
+        
+        // Each respondent is surveyed by exactly the shard it
+        // belongs to, and no shard is polled twice
+        Set<UUID> surveyed = new HashSet<UUID>();
+        Set<Integer> shardIndices = new HashSet<Integer>();
+        for (SocialPollBallot shard : poll.getShards())
+        {
+            Set<UUID> expected = copyOf(shard.getExpectedRespondents());
+            assertFalse(expected.isEmpty());
+            
+            int shardIndex = ShardedSocialPoll.shardOf(expected.iterator().next(), SHARD_COUNT);
+            for (UUID respondent : expected)
+            {
+                assertEquals(shardIndex, ShardedSocialPoll.shardOf(respondent, SHARD_COUNT));
+            }
+            
+            assertTrue(shardIndices.add(shardIndex));
+            assertTrue(surveyed.addAll(expected));
+        }
+        
+        assertEquals(new HashSet<UUID>(respondents), surveyed);
+    }
+    
+    @Test
+    public void stopsAtFirstShardDecidingAnyPolicy()
+    {
+        final StubEventSpace space = new StubEventSpace(true);
+        space.addRespondents(RESPONDENT_COUNT, true);
+        
+        ShardedSocialPoll poll = conductPoll(space, QuorumEvaluator.atLeast(1, true));
+        
+        // First shard decides the poll as it is executed, such
+        // that later shards are never surveyed
+        assertEquals(MergePolicy.ANY, poll.getMergePolicy());
+        assertEquals(Boolean.TRUE, poll.getResult().toCompletableFuture().getNow(null));
+        assertEquals(1, poll.getShards().size());
+        assertFalse(poll.inProgress());
+        
+        ExperimentStatistics statistics = poll.getStatistics().toCompletableFuture().getNow(null);
+        assertEquals(poll.getShards().get(0).getExpectedRespondents().size(), 
+            statistics.getExpectedCount());
+    }
+    
+    @Test
+    public void holdsAllPolicyOnceEveryShardHolds()
+    {
+        final StubEventSpace space = new StubEventSpace(false);
+        space.addRespondents(RESPONDENT_COUNT, true);
+        
+        ShardedSocialPoll poll = conductPoll(space, QuorumEvaluator.fraction(1, true));
+        
+        assertEquals(MergePolicy.ALL, poll.getMergePolicy());
+        assertTrue(poll.getShards().size() > 1);
+        assertEquals(poll.getShards().size(), poll.getPendingShardCount());
+        assertNull(poll.getResult().toCompletableFuture().getNow(null));
+        assertNull(poll.getStatistics().toCompletableFuture().getNow(null));
+        
+        space.releaseAnswers();
+        
+        assertEquals(Boolean.TRUE, poll.getResult().toCompletableFuture().getNow(null));
+        assertEquals(0, poll.getPendingShardCount());
+        
+        // Statistics of every shard are combined
+        ExperimentStatistics statistics = poll.getStatistics().toCompletableFuture().getNow(null);
+        assertEquals(RESPONDENT_COUNT, statistics.getExpectedCount());
+        assertEquals(RESPONDENT_COUNT, statistics.getPositiveCount());
+        assertEquals(0, statistics.getNegativeCount());
+    }
+    
+    @Test
+    public void failsAllPolicyOnSingleDissentingShard()
+    {
+        final StubEventSpace space = new StubEventSpace(false);
+        space.addRespondents(RESPONDENT_COUNT - 1, true);
+        space.addRespondents(1, false);
+        
+        ShardedSocialPoll poll = conductPoll(space, QuorumEvaluator.fraction(1, true));
+        space.releaseAnswers();
+        
+        assertEquals(Boolean.FALSE, poll.getResult().toCompletableFuture().getNow(null));
+        assertFalse(poll.inProgress());
+        assertTrue(poll.getStatistics().toCompletableFuture().isDone());
+    }
+    
+    /**
+     * Conduct a sharded poll of a query.
+     * @param space Space to conduct poll in
+     * @param evaluator Evaluator of each shard
+     * @return Poll instance
+     */
+    private static ShardedSocialPoll conductPoll(StubEventSpace space, 
+        ExperimentEvaluator<? super SocialPollBallot> evaluator)
+    {
+        return new ShardedSocialPoll.Executor()
+            .setSpace(space)
+            .addSurveys(new BeliefQuery("fact(X)"))
+            .setEvaluator(evaluator)
+            .setShardCount(SHARD_COUNT)
+            .endExperimentAfter(5000)
+            .execute();
+    }
+    
+    /**
+     * Copy the contents of a synchronized set.
+     * @param set Set to copy
+     * @return Copy of set
+     */
+    private static <T> Set<T> copyOf(SynchronizedSet<T> set)
+    {
+        synchronized (set.mutex())
+        {
+            return new HashSet<T>(set);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the poll tracer ring buffer.
+ */
+public class PollTracerTest
+{
+    // Agent performing traced phases
+    private final UUID actor = UUID.randomUUID();
+    
+    @Test
+    public void assignsTracesOnlyWhenEnabled()
+    {
+        PollTracer tracer = new PollTracer(8);
+        assertEquals(PollTracer.UNTRACED, tracer.newTrace());
+        
+        tracer.setEnabled(true);
+        final long first = tracer.newTrace();
+        final long second = tracer.newTrace();
+        
+        assertNotEquals(PollTracer.UNTRACED, first);
+        assertNotEquals(first, second);
+    }
+    
+    @Test
+    public void ignoresUntracedSpans()
+    {
+        PollTracer tracer = new PollTracer(8);
+        tracer.setEnabled(true);
+        tracer.span(PollTracer.UNTRACED, "survey", actor, System.nanoTime());
+        
+        // Spans of traces begun prior to disabling are
+        // also ignored
+        final long traceId = tracer.newTrace();
+        tracer.setEnabled(false);
+        tracer.span(traceId, "survey", actor, System.nanoTime());
+        
+        assertTrue(tracer.getSpans(PollTracer.UNTRACED).isEmpty());
+    }
+    
+    @Test
+    public void filtersAndOrdersSpansByTrace()
+    {
+        PollTracer tracer = new PollTracer(8);
+        tracer.record(new TraceSpan(1, "respond", actor, 20, 5, 1));
+        tracer.record(new TraceSpan(2, "survey", actor, 15, 5, 1));
+        tracer.record(new TraceSpan(1, "survey", actor, 10, 5, 1));
+        
+        List<TraceSpan> spans = tracer.getSpans(1);
+        assertEquals(2, spans.size());
+        assertEquals("survey", spans.get(0).getName());
+        assertEquals("respond", spans.get(1).getName());
+        
+        assertEquals(3, tracer.getSpans(PollTracer.UNTRACED).size());
+    }
+    
+    @Test
+    public void overwritesOldestSpansWhenFull()
+    {
+        // Capacity is rounded up to a power of two
+        PollTracer tracer = new PollTracer(3);
+        for (int i = 0; i < 6; ++i)
+        {
+            tracer.record(new TraceSpan(1, "span" + i, actor, i, 1, 1));
+        }
+        
+        List<TraceSpan> spans = tracer.getSpans(1);
+        assertEquals(4, spans.size());
+        assertEquals("span2", spans.get(0).getName());
+        assertEquals("span5", spans.get(3).getName());
+    }
+    
+    @Test
+    public void discardsSpansOnClear()
+    {
+        PollTracer tracer = new PollTracer(8);
+        tracer.record(new TraceSpan(1, "survey", actor, 0, 1, 1));
+        tracer.clear();
+        
+        assertTrue(tracer.getSpans(PollTracer.UNTRACED).isEmpty());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveCapacity()
+    {
+        new PollTracer(0);
+    }
+    
+    @Test
+    public void writesChromeTraceRelativeToFirstSpan() throws IOException
+    {
+        PollTracer tracer = new PollTracer(8);
+        tracer.record(new TraceSpan(1, "survey", actor, 5000, 1500, 7));
+        tracer.record(new TraceSpan(1, "respond", actor, 8000, 250, 7));
+        
+        final Path path = Files.createTempFile("trace", ".json");
+        try
+        {
+            tracer.writeChromeTrace(1, path);
+            final String trace = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            
+            assertTrue(trace.startsWith("{\"traceEvents\":["));
+            assertTrue(trace.contains("\"name\":\"survey\",\"ph\":\"X\",\"ts\":0.000,\"dur\":1.500"));
+            assertTrue(trace.contains("\"name\":\"respond\",\"ph\":\"X\",\"ts\":3.000,\"dur\":0.250"));
+            assertTrue(trace.contains("\"actor\":\"" + actor + "\""));
+        }
+        finally
+        {
+            Files.delete(path);
+        }
+    }
+}
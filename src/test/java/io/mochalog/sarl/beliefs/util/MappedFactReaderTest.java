@@ -0,0 +1,59 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the stripping of comments from fact lines.
+ */
+public class MappedFactReaderTest
+{
+    @Test
+    public void stripsTrailingComment()
+    {
+        assertEquals("fact(a). ", MappedFactReader.stripComment("fact(a). % comment"));
+        assertEquals("", MappedFactReader.stripComment("% comment"));
+        assertEquals("fact(a).", MappedFactReader.stripComment("fact(a)."));
+    }
+    
+    @Test
+    public void ignoresPercentWithinQuotes()
+    {
+        assertEquals("fact('100%', \"5%\"). ", 
+            MappedFactReader.stripComment("fact('100%', \"5%\"). % comment"));
+        assertEquals("fact(`%`).", MappedFactReader.stripComment("fact(`%`)."));
+    }
+    
+    @Test
+    public void ignoresEscapedQuotes()
+    {
+        assertEquals("fact('it\\'s 5%'). ", 
+            MappedFactReader.stripComment("fact('it\\'s 5%'). % comment"));
+    }
+    
+    @Test
+    public void ignoresPercentCharacterCode()
+    {
+        assertEquals("code(0'%). ", MappedFactReader.stripComment("code(0'%). % comment"));
+        
+        // Quoted atom following a digit is not a character code
+        assertEquals("fact(a10'%'). ", MappedFactReader.stripComment("fact(a10'%'). % c"));
+    }
+}
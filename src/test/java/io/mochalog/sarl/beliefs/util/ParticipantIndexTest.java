@@ -0,0 +1,71 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the participant index.
+ */
+public class ParticipantIndexTest
+{
+    // Participants of the space being indexed
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    
+    @Test
+    public void indexesParticipantsInOrder()
+    {
+        ParticipantIndex index = new ParticipantIndex(Arrays.asList(first, second));
+        
+        assertEquals(2, index.size());
+        assertEquals(0, index.indexOf(first));
+        assertEquals(1, index.indexOf(second));
+        assertEquals(first, index.get(0));
+        assertEquals(second, index.get(1));
+    }
+    
+    @Test
+    public void assignsDuplicatesSingleIndex()
+    {
+        ParticipantIndex index = new ParticipantIndex(Arrays.asList(first, second, first));
+        
+        assertEquals(2, index.size());
+        assertEquals(0, index.indexOf(first));
+    }
+    
+    @Test
+    public void rejectsUnindexedParticipants()
+    {
+        ParticipantIndex index = new ParticipantIndex(Arrays.asList(first));
+        
+        assertEquals(-1, index.indexOf(second));
+        assertEquals(-1, index.indexOf(null));
+        assertEquals(-1, index.indexOf("participant"));
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsOutOfRangeIndices()
+    {
+        new ParticipantIndex(Arrays.asList(first)).get(1);
+    }
+}
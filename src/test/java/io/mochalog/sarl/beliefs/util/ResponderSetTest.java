@@ -0,0 +1,171 @@
+/**
+ * Copyright 2017 The Mochalog-SARL-Beliefs Authors.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.mochalog.sarl.beliefs.util;
+
+import io.sarl.lang.util.SynchronizedSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the responder set, both prior to and
+ * following attachment of a participant index.
+ */
+public class ResponderSetTest
+{
+    // Participants covered by the index
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    // Participant absent from the index
+    private final UUID stranger = UUID.randomUUID();
+    
+    // Index of the space participants
+    private final ParticipantIndex index = new ParticipantIndex(Arrays.asList(first, second));
+    
+    @Test
+    public void holdsRespondersWithoutIndex()
+    {
+        ResponderSet responders = new ResponderSet();
+        
+        assertTrue(responders.add(first));
+        assertFalse(responders.add(first));
+        assertTrue(responders.contains(first));
+        assertEquals(1, responders.size());
+        
+        assertTrue(responders.remove(first));
+        assertFalse(responders.remove(first));
+        assertTrue(responders.isEmpty());
+    }
+    
+    @Test
+    public void migratesRespondersOnAttachment()
+    {
+        ResponderSet responders = new ResponderSet();
+        responders.add(first);
+        responders.add(stranger);
+        
+        responders.attachIndex(index, false);
+        
+        assertEquals(2, responders.size());
+        assertTrue(responders.contains(first));
+        assertTrue(responders.contains(stranger));
+        assertFalse(responders.contains(second));
+        
+        // Migrated responders are not added twice
+        assertFalse(responders.add(first));
+        assertEquals(2, responders.size());
+    }
+    
+    @Test
+    public void holdsIndexedAndUnindexedResponders()
+    {
+        ResponderSet responders = new ResponderSet();
+        responders.attachIndex(index, false);
+        
+        assertTrue(responders.add(second));
+        assertTrue(responders.add(stranger));
+        assertEquals(new HashSet<UUID>(Arrays.asList(second, stranger)), toSet(responders));
+        
+        assertTrue(responders.remove(second));
+        assertFalse(responders.remove(second));
+        assertTrue(responders.remove(stranger));
+        assertTrue(responders.isEmpty());
+    }
+    
+    @Test
+    public void holdsAllParticipantsWhenFull()
+    {
+        ResponderSet responders = new ResponderSet();
+        responders.attachIndex(index, true);
+        
+        assertEquals(2, responders.size());
+        assertEquals(new HashSet<UUID>(Arrays.asList(first, second)), toSet(responders));
+        assertFalse(responders.add(first));
+        
+        assertTrue(responders.remove(first));
+        assertEquals(1, responders.size());
+        assertFalse(responders.contains(first));
+    }
+    
+    @Test
+    public void fillsPartialBitmapWordsWhenFull()
+    {
+        // Cover indices spanning more than a single word
+        Set<UUID> participants = new HashSet<UUID>();
+        for (int i = 0; i < 70; ++i)
+        {
+            participants.add(UUID.randomUUID());
+        }
+        
+        ResponderSet responders = new ResponderSet();
+        responders.attachIndex(new ParticipantIndex(participants), true);
+        
+        assertEquals(70, responders.size());
+        assertEquals(participants, toSet(responders));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void rejectsSecondIndex()
+    {
+        ResponderSet responders = new ResponderSet();
+        responders.attachIndex(index, false);
+        responders.attachIndex(index, false);
+    }
+    
+    @Test
+    public void viewReflectsChanges()
+    {
+        ResponderSet responders = new ResponderSet();
+        SynchronizedSet<UUID> view = responders.unmodifiableView();
+        
+        responders.add(first);
+        responders.attachIndex(index, false);
+        responders.add(second);
+        
+        assertEquals(2, view.size());
+        assertTrue(view.contains(first));
+        assertEquals(new HashSet<UUID>(Arrays.asList(first, second)), toSet(view));
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void viewRejectsChanges()
+    {
+        new ResponderSet().unmodifiableView().add(first);
+    }
+    
+    /**
+     * Copy the elements of a set, iterating over it
+     * while holding its mutex.
+     * @param set Set to copy
+     * @return Copied elements
+     */
+    private static Set<UUID> toSet(SynchronizedSet<UUID> set)
+    {
+        synchronized (set.mutex())
+        {
+            return new HashSet<UUID>(set);
+        }
+    }
+}